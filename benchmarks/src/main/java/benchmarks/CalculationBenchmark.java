@@ -0,0 +1,82 @@
+package benchmarks;
+
+import billing.ApplianceData;
+import billing.BillingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The kWh and cost formulas behind displayCalculationResults, per appliance and in batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private double[] watts;
+    private double[] hours;
+    private int[] efficiency;
+    private double[] kwhOut;
+    private double[] costOut;
+    private List<ApplianceData> appliances;
+    private BillingEngine engine;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        watts = new double[rows];
+        hours = new double[rows];
+        efficiency = new int[rows];
+        kwhOut = new double[rows];
+        costOut = new double[rows];
+        appliances = new ArrayList<>(rows);
+        Date now = new Date();
+        for (int i = 0; i < rows; i++) {
+            watts[i] = 5 + random.nextDouble() * 2500;
+            hours[i] = 0.5 + random.nextDouble() * 23.5;
+            efficiency[i] = 10 + random.nextInt(91);
+            appliances.add(new ApplianceData("Device " + i, "Other", watts[i], hours[i], efficiency[i], 0, 0, now));
+        }
+        engine = new BillingEngine();
+    }
+
+    @Benchmark
+    public void billEach(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(engine.bill(watts[i], hours[i], efficiency[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] billArrays() {
+        engine.billAll(rows, watts, hours, efficiency, kwhOut, costOut);
+        return costOut;
+    }
+
+    @Benchmark
+    public List<ApplianceData> billRecords() {
+        return engine.billAll(appliances);
+    }
+}
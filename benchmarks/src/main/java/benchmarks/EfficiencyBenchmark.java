@@ -0,0 +1,66 @@
+package benchmarks;
+
+import billing.DeviceClassifier;
+import billing.DeviceEfficiency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Device efficiency rating over the names the sample data and calculator produce, one at
+ * a time and as a batch of a million devices sharing a few thousand distinct names.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EfficiencyBenchmark {
+    private final String[] names = {
+            "Living Room AC", "Kitchen Refrigerator", "Bathroom Water Heater", "Washing Machine",
+            "Living Room TV", "Bedroom Fan", "LED Light", "Desktop Computer", "Microwave Oven", "Vacuum Cleaner"
+    };
+    private final double[] watts = {1500, 150, 2000, 500, 100, 75, 9, 200, 1200, 1400};
+
+    private static final int BATCH_SIZE = 1_000_000;
+    private String[] batchNames;
+    private double[] batchWatts;
+    private DeviceEfficiency[] batchRatings;
+
+    @Setup
+    public void setUp() {
+        batchNames = new String[BATCH_SIZE];
+        batchWatts = new double[BATCH_SIZE];
+        batchRatings = new DeviceEfficiency[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchNames[i] = names[i % names.length] + " " + (i % 5000);
+            batchWatts[i] = watts[i % watts.length];
+        }
+    }
+
+    @Benchmark
+    public void getDeviceEfficiency(Blackhole bh) {
+        for (int i = 0; i < names.length; i++) {
+            bh.consume(DeviceEfficiency.of(names[i], watts[i]));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DeviceEfficiency[] rateMillionDevices() {
+        DeviceClassifier.getDefault().rateAll(BATCH_SIZE, batchNames, batchWatts, batchRatings);
+        return batchRatings;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import billing.BillingEngine;
+import billing.BillingResult;
+import billing.FixedPointFormat;
+import billing.ResultRenderer;
+import billing.ResultSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Number formatting and the summary filled for the calculator's result panel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderingBenchmark {
+    private BillingResult result;
+    private DecimalFormat sharedFormat;
+    private final char[] buffer = new char[FixedPointFormat.MAX_LENGTH];
+    private final ResultSummary summary = new ResultSummary();
+
+    @Setup
+    public void setUp() {
+        result = new BillingEngine().bill(1500, 8, 50);
+        sharedFormat = new DecimalFormat("#,##0.00");
+    }
+
+    @Benchmark
+    public String decimalFormatPerCall() {
+        return new DecimalFormat("#,##0.00").format(result.getMonthlyCost());
+    }
+
+    @Benchmark
+    public String decimalFormatShared() {
+        return sharedFormat.format(result.getMonthlyCost());
+    }
+
+    @Benchmark
+    public char[] fixedPointIntoBuffer() {
+        FixedPointFormat.MONEY.format(result.getMonthlyCost(), buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public ResultSummary renderResultSummary() {
+        ResultRenderer.render("Living Room AC", 1500, 8, 50, result, 4289, summary);
+        return summary;
+    }
+}
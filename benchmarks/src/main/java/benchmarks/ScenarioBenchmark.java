@@ -0,0 +1,62 @@
+package benchmarks;
+
+import billing.BillingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scenario.Scenario;
+import scenario.ScenarioSimulator;
+import storage.ApplianceTable;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What-if re-billing of a large portfolio: every AC at 40% efficiency and every bulb a 9 W LED.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ScenarioBenchmark {
+
+    @Param({"1000000", "5000000"})
+    public int rows;
+
+    private ApplianceTable appliances;
+    private Scenario scenario;
+    private ScenarioSimulator simulator;
+
+    @Setup
+    public void setUp() {
+        String[] types = {"Air Conditioner", "Light Bulb", "Refrigerator", "Television", "Ceiling Fan", "Computer"};
+        Random random = new Random(42);
+        appliances = new ApplianceTable();
+        for (int i = 0; i < rows; i++) {
+            String type = types[random.nextInt(types.length)];
+            appliances.add(i, "Device " + i, type, 5 + random.nextDouble() * 2500, 0.5 + random.nextDouble() * 23.5,
+                    10 + random.nextInt(91), 0, 0, 0L);
+        }
+        scenario = new Scenario("Efficient home", Arrays.asList(
+                new Scenario.Rule(Scenario.Target.TYPE, "air conditioner", Scenario.Field.EFFICIENCY,
+                        Scenario.Operation.SET, 40),
+                new Scenario.Rule(Scenario.Target.TYPE, "bulb", Scenario.Field.WATTS, Scenario.Operation.SET, 9)));
+        simulator = new ScenarioSimulator(new BillingEngine());
+    }
+
+    @Benchmark
+    public ScenarioSimulator.Result simulate() throws InterruptedException {
+        return simulator.simulate(appliances, scenario);
+    }
+}
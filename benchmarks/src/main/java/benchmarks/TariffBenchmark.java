@@ -0,0 +1,68 @@
+package benchmarks;
+
+import billing.BillingEngine;
+import billing.TariffEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slab lookup and bill pricing over a spread of monthly consumptions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TariffBenchmark {
+    private static final int SIZE = 1024;
+
+    private final double[] kwh = new double[SIZE];
+    private BillingEngine engine;
+    private TariffEvaluator progressive;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            kwh[i] = random.nextDouble() * 1000;
+        }
+        engine = new BillingEngine();
+        progressive = new TariffEvaluator(BillingEngine.DEFAULT_KWH_TIERS, BillingEngine.DEFAULT_UNIT_PRICES,
+                TariffEvaluator.Mode.PROGRESSIVE);
+    }
+
+    @Benchmark
+    public void findUnitPrice(Blackhole bh) {
+        for (double units : kwh) {
+            bh.consume(engine.findUnitPrice(units));
+        }
+    }
+
+    @Benchmark
+    public void singleSlabCost(Blackhole bh) {
+        TariffEvaluator tariff = engine.getTariff();
+        for (double units : kwh) {
+            bh.consume(tariff.cost(units));
+        }
+    }
+
+    @Benchmark
+    public void progressiveCost(Blackhole bh) {
+        for (double units : kwh) {
+            bh.consume(progressive.cost(units));
+        }
+    }
+}
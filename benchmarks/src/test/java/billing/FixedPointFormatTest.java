@@ -0,0 +1,53 @@
+package billing;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedPointFormatTest {
+
+    @Test
+    void roundsHalfEvenOnTheStoredValue() {
+        // 0.065 is stored just above 0.065, 1.595 just below 1.595
+        assertEquals("0.07", FixedPointFormat.MONEY.format(0.065));
+        assertEquals("1.59", FixedPointFormat.MONEY.format(1.595));
+        assertEquals("0.12", FixedPointFormat.MONEY.format(0.125));
+        assertEquals("0.38", FixedPointFormat.MONEY.format(0.375));
+        assertEquals("2", FixedPointFormat.WHOLE.format(2.5));
+        assertEquals("4", FixedPointFormat.WHOLE.format(3.5));
+        assertEquals("-1.59", FixedPointFormat.MONEY.format(-1.595));
+        assertEquals("0.00", FixedPointFormat.MONEY.format(-0.001));
+    }
+
+    @Test
+    void matchesDecimalFormatOnThousandthsEndingInFive() {
+        DecimalFormat money = new DecimalFormat("#,##0.00");
+        DecimalFormat kwh = new DecimalFormat("#,##0.##");
+        for (long thousandths = 5; thousandths < 10_000_000; thousandths += 10) {
+            double value = thousandths / 1000.0;
+            assertEquals(money.format(value), FixedPointFormat.MONEY.format(value), () -> "MONEY " + value);
+            assertEquals(kwh.format(value), FixedPointFormat.KWH.format(value), () -> "KWH " + value);
+        }
+    }
+
+    @Test
+    void matchesDecimalFormatAtEveryMagnitude() {
+        Random random = new Random(42);
+        for (int decimals = 0; decimals <= 4; decimals++) {
+            for (boolean trimZeros : new boolean[] {false, true}) {
+                FixedPointFormat format = new FixedPointFormat(decimals, trimZeros);
+                DecimalFormat expected = new DecimalFormat(decimals == 0 ? "#,##0"
+                        : "#,##0." + (trimZeros ? "#" : "0").repeat(decimals));
+                for (int i = 0; i < 100_000; i++) {
+                    // Up to 1e15, past the point where doubles are coarser than the last digit
+                    double value = Math.scalb((double) (random.nextLong() >>> 15), -random.nextInt(60));
+                    String description = decimals + " decimals, " + value;
+                    assertEquals(expected.format(value), format.format(value), description);
+                }
+            }
+        }
+    }
+}
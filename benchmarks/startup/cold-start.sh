@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Compares launch-to-first-frame time of the packaged build with and without its AppCDS archive.
+#
+#   benchmarks/startup/package.sh
+#   benchmarks/startup/cold-start.sh [runs]
+#
+# Each launch is a fresh JVM that exits after its first interactive frame. The two variants
+# alternate so drift on the machine affects both alike. The OS file cache stays warm after
+# the first launch; on a kiosk, drop it between runs for truly cold numbers.
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+OUT="$ROOT/benchmarks/target/startup"
+RUNS=${1:-10}
+
+if [[ ! -f "$OUT/app.jsa" ]]; then
+    echo "No archive in $OUT; run benchmarks/startup/package.sh first" >&2
+    exit 1
+fi
+
+# Prints the launch-to-first-frame milliseconds of one launch
+launch() {
+    (cd "$OUT" && java "$@" -Duser.home="$OUT/home" -Dstartup.timing=true -Dstartup.exit=true \
+        -jar electricity-calculator.jar) | sed -n 's/^Time to first frame: \([0-9]*\) ms.*/\1/p'
+}
+
+# Prints min, median and max of the numbers on stdin
+summarize() {
+    sort -n | awk '{ v[NR] = $1 } END { printf "min %5d   median %5d   max %5d   (%d runs)\n", v[1], v[int((NR + 1) / 2)], v[NR], NR }'
+}
+
+: > "$OUT/default.txt"
+: > "$OUT/appcds.txt"
+for ((i = 1; i <= RUNS; i++)); do
+    launch >> "$OUT/default.txt"
+    launch -XX:SharedArchiveFile=app.jsa >> "$OUT/appcds.txt"
+done
+
+echo "Time to first frame (ms since launch)"
+echo "  default CDS: $(summarize < "$OUT/default.txt")"
+echo "  AppCDS:      $(summarize < "$OUT/appcds.txt")"
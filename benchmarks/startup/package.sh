@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Packages the application as a runnable jar and records an AppCDS archive from a real launch.
+#
+# Output goes to benchmarks/target/startup:
+#   electricity-calculator.jar  the application, with lib/ on its manifest class path
+#   app.jsa                     classes loaded up to the first interactive frame
+#   home/                       the user.home used for packaging and benchmark runs
+#
+# The training launch opens the application window and exits after its first frame, so it
+# needs a display. Run the packaged build with the archive:
+#   java -XX:SharedArchiveFile=app.jsa -jar electricity-calculator.jar
+# The archive only matches this jar and JDK; repackage after changing either.
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+OUT="$ROOT/benchmarks/target/startup"
+LIBS=(jfreechart-1.5.3.jar jcommon-1.0.23.jar)
+
+rm -rf "$OUT"
+mkdir -p "$OUT/classes" "$OUT/lib" "$OUT/home"
+
+echo "Compiling..."
+find "$ROOT/src" -name '*.java' > "$OUT/sources.txt"
+javac -encoding UTF-8 -Xlint:none -d "$OUT/classes" \
+    -cp "$ROOT/${LIBS[0]}:$ROOT/${LIBS[1]}" @"$OUT/sources.txt"
+(cd "$ROOT/src" && find . \( -name '*.txt' -o -name '*.png' \) -exec cp --parents {} "$OUT/classes" \;)
+
+echo "Packaging..."
+for lib in "${LIBS[@]}"; do
+    cp "$ROOT/$lib" "$OUT/lib/"
+done
+printf 'Main-Class: Main\nClass-Path: lib/%s lib/%s\n' "${LIBS[@]}" > "$OUT/manifest.txt"
+jar --create --file "$OUT/electricity-calculator.jar" --manifest "$OUT/manifest.txt" -C "$OUT/classes" .
+
+# The training launch also seeds home/ with the sample data, so every later run loads the same store
+echo "Recording class data sharing archive..."
+(cd "$OUT" && java -XX:ArchiveClassesAtExit=app.jsa -Duser.home="$OUT/home" -Dstartup.exit=true \
+    -jar electricity-calculator.jar)
+
+echo "Packaged to $OUT"
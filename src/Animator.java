@@ -0,0 +1,147 @@
+import javax.swing.Timer;
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs every UI animation off one shared Swing timer that ticks at the display's refresh
+ * rate, and only while something is animating. Starting an animation under a name that is
+ * already running ends the old one first, so repeated clicks never stack up timers.
+ *
+ * <p>A tick that arrives more than one and a half frames late counts the frames it missed
+ * as dropped. Run with {@code -Danimation.stats=true} to print the frame and dropped-frame
+ * count of each animation as it ends. Used on the EDT only.
+ */
+public class Animator {
+    private static final boolean PRINT_STATS = Boolean.getBoolean("animation.stats");
+    private static final int DEFAULT_REFRESH_RATE = 60;
+    private static Animator shared;
+
+    /** Called on every frame with the animation's progress, ending with exactly 1. */
+    public interface Frame {
+        void update(float progress);
+    }
+
+    private static final class Running {
+        final String name;
+        final long startNanos;
+        final long durationNanos;
+        final Frame frame;
+        final Runnable onEnd;
+        final long droppedAtStart;
+        int frames;
+        boolean done;
+
+        Running(String name, long startNanos, long durationNanos, Frame frame, Runnable onEnd, long droppedAtStart) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.frame = frame;
+            this.onEnd = onEnd;
+            this.droppedAtStart = droppedAtStart;
+        }
+    }
+
+    private final long frameNanos;
+    private final Timer timer;
+    private final List<Running> active = new ArrayList<>();
+    private long lastTickNanos;
+    private long framesPainted;
+    private long framesDropped;
+
+    public Animator(int refreshRate) {
+        frameNanos = 1_000_000_000L / refreshRate;
+        timer = new Timer(Math.max(1, Math.round(1000f / refreshRate)), e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    /** The animator for the main screen's refresh rate. */
+    public static Animator getShared() {
+        if (shared == null) {
+            shared = new Animator(screenRefreshRate());
+        }
+        return shared;
+    }
+
+    private static int screenRefreshRate() {
+        try {
+            DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+            int rate = mode.getRefreshRate();
+            return rate != DisplayMode.REFRESH_RATE_UNKNOWN ? rate : DEFAULT_REFRESH_RATE;
+        } catch (HeadlessException e) {
+            return DEFAULT_REFRESH_RATE;
+        }
+    }
+
+    /**
+     * Starts an animation of {@code durationMillis}, ending any running animation with the
+     * same name. {@code onEnd} runs after the final frame, or when the animation is replaced.
+     */
+    public void start(String name, int durationMillis, Frame frame, Runnable onEnd) {
+        for (int i = 0; i < active.size(); i++) {
+            Running running = active.get(i);
+            if (!running.done && running.name.equals(name)) {
+                end(running);
+            }
+        }
+        long now = System.nanoTime();
+        active.add(new Running(name, now, durationMillis * 1_000_000L, frame, onEnd, framesDropped));
+        if (!timer.isRunning()) {
+            lastTickNanos = now;
+            timer.start();
+        }
+    }
+
+    public boolean isRunning(String name) {
+        for (Running running : active) {
+            if (!running.done && running.name.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getFramesPainted() { return framesPainted; }
+    public long getFramesDropped() { return framesDropped; }
+    public int getRefreshRate() { return (int) (1_000_000_000L / frameNanos); }
+
+    private void tick() {
+        long now = System.nanoTime();
+        long late = now - lastTickNanos;
+        if (late > frameNanos * 3 / 2) {
+            framesDropped += (late + frameNanos / 2) / frameNanos - 1;
+        }
+        lastTickNanos = now;
+        framesPainted++;
+
+        // Animations started by a callback get their first frame on the next tick
+        int count = active.size();
+        for (int i = 0; i < count; i++) {
+            Running running = active.get(i);
+            if (running.done) {
+                continue;
+            }
+            float progress = Math.min(1f, (float) (now - running.startNanos) / running.durationNanos);
+            running.frames++;
+            running.frame.update(progress);
+            if (progress >= 1f) {
+                end(running);
+            }
+        }
+        active.removeIf(running -> running.done);
+        if (active.isEmpty()) {
+            timer.stop();
+        }
+    }
+
+    private void end(Running running) {
+        running.done = true;
+        if (PRINT_STATS) {
+            System.out.printf("Animation %s: %d frames, %d dropped%n", running.name, running.frames,
+                    framesDropped - running.droppedAtStart);
+        }
+        running.onEnd.run();
+    }
+}
@@ -0,0 +1,73 @@
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import java.util.function.IntFunction;
+
+/**
+ * Loads long series into a category dataset in one go. Change notifications are suspended
+ * while the dataset is filled, so listening charts see a single change event, and series
+ * with more points than the chart has pixel columns are reduced to the min and max of each
+ * column, which keeps every peak and trough visible. Labels are asked for only at the
+ * points that are plotted, so a long series never formats a label per value.
+ */
+public class ChartFeeder {
+
+    private ChartFeeder() {
+    }
+
+    /**
+     * Replaces the contents of {@code dataset} with {@code n} values per series, labelled
+     * by {@code label} from the value's index.
+     *
+     * @return the number of points plotted per series
+     */
+    public static int load(DefaultCategoryDataset dataset, int n, IntFunction<String> label, String[] seriesKeys,
+                           double[][] series, int pixelColumns) {
+        boolean notify = dataset.getNotify();
+        dataset.setNotify(false);
+        try {
+            dataset.clear();
+            if (n <= 2 * pixelColumns) {
+                for (int i = 0; i < n; i++) {
+                    String category = label.apply(i);
+                    for (int s = 0; s < series.length; s++) {
+                        dataset.addValue(series[s][i], seriesKeys[s], category);
+                    }
+                }
+                return n;
+            }
+
+            int points = 0;
+            for (int column = 0; column < pixelColumns; column++) {
+                int from = (int) ((long) column * n / pixelColumns);
+                int to = (int) ((long) (column + 1) * n / pixelColumns);
+                if (from == to) {
+                    continue;
+                }
+                // Each column plots as two categories: its first and last label
+                String firstLabel = label.apply(from);
+                String lastLabel = to - from > 1 ? label.apply(to - 1) : firstLabel;
+                for (int s = 0; s < series.length; s++) {
+                    double[] values = series[s];
+                    int min = from;
+                    int max = from;
+                    for (int i = from + 1; i < to; i++) {
+                        if (values[i] < values[min]) {
+                            min = i;
+                        } else if (values[i] > values[max]) {
+                            max = i;
+                        }
+                    }
+                    // Keep the extremes in time order
+                    dataset.addValue(values[Math.min(min, max)], seriesKeys[s], firstLabel);
+                    if (to - from > 1) {
+                        dataset.addValue(values[Math.max(min, max)], seriesKeys[s], lastLabel);
+                    }
+                }
+                points += to - from > 1 ? 2 : 1;
+            }
+            return points;
+        } finally {
+            dataset.setNotify(notify);
+        }
+    }
+}
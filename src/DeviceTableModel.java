@@ -0,0 +1,77 @@
+import javax.swing.table.AbstractTableModel;
+import billing.ApplianceData;
+import billing.FixedPointFormat;
+import storage.ApplianceStore;
+import storage.ApplianceTable;
+
+/**
+ * Table model for the "My Devices" table that reads straight from the appliance store's
+ * columnar table. Nothing is copied per row; cells are formatted only when the table asks
+ * for them, which it does for visible rows.
+ */
+public class DeviceTableModel extends AbstractTableModel implements ApplianceStore.Listener {
+    public static final int ACTIONS_COLUMN = 6;
+
+    private static final String[] COLUMN_NAMES = {
+            "Device Name", "Type", "Power (W)", "Hours/Day", "Monthly kWh", "Monthly Cost", "Actions"
+    };
+
+    private final ApplianceTable table;
+
+    // Cell text is formatted here before becoming a string; only used on the EDT
+    private final char[] cellBuffer = new char[FixedPointFormat.MAX_LENGTH + 2];
+
+    public DeviceTableModel(ApplianceStore store) {
+        this.table = store.getApplianceTable();
+        store.addListener(this);
+    }
+
+    @Override
+    public int getRowCount() {
+        return table.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTIONS_COLUMN; // Only actions column is editable
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return table.getName(row);
+            case 1: return table.getType(row);
+            case 2: return table.getWatts(row);
+            case 3: return table.getHours(row);
+            case 4: return format("", table.getKwh(row), FixedPointFormat.KWH);
+            case 5: return format("Rs", table.getMonthlyCost(row), FixedPointFormat.MONEY);
+            default: return "Edit/Delete";
+        }
+    }
+
+    private String format(String prefix, double value, FixedPointFormat format) {
+        prefix.getChars(0, prefix.length(), cellBuffer, 0);
+        int length = prefix.length() + format.format(value, cellBuffer, prefix.length());
+        return new String(cellBuffer, 0, length);
+    }
+
+    @Override
+    public void appliancesAdded(int firstRow, int lastRow) {
+        fireTableRowsInserted(firstRow, lastRow);
+    }
+
+    @Override
+    public void applianceRemoved(int row, long id, ApplianceData removed) {
+        fireTableRowsDeleted(row, row);
+    }
+}
@@ -8,18 +8,47 @@ import java.io.*;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.List;
+import java.util.function.IntFunction;
 import javax.swing.plaf.basic.BasicScrollBarUI;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.*;
 import org.jfree.data.category.DefaultCategoryDataset;
 import javax.swing.Timer;
 import java.awt.image.BufferedImage;
+import billing.ApplianceData;
+import billing.BillHistory;
+import billing.BillingEngine;
+import billing.BillingResult;
+import billing.CompiledTariff;
+import billing.DeviceCatalog;
+import billing.FixedPointFormat;
+import billing.TariffSchedule;
+import billing.ResultRenderer;
+import report.ReportEngine;
+import scenario.Scenario;
+import scenario.ScenarioSimulator;
+import storage.ApplianceExporter;
+import storage.ApplianceImporter;
+import storage.ApplianceStore;
+import storage.ApplianceTable;
+import storage.DashboardStats;
+import storage.DeviceSearchIndex;
+import storage.MeterSeries;
 public class EnhancedElectricityCalculator extends JFrame {
 
     // Main panels
     private JPanel sidebarPanel;
-    private JPanel contentPanel;
+    private CardTransitionPanel contentPanel;
+    private String currentCard = "dashboard";
     private CardLayout cardLayout;
 
     // Sidebar buttons
@@ -38,34 +67,82 @@ public class EnhancedElectricityCalculator extends JFrame {
     private JTextField hoursField;
     private JSlider efficiencySlider;
     private JComboBox<String> deviceTypeComboBox;
-    private JLabel resultLabel;
+    private JComboBox<DeviceCatalog.DeviceProfile> deviceModelComboBox;
+    private ResultView resultView;
     private JPanel resultPanel;
 
     // Devices panel components
     private JPanel devicesPanel;
     private JTable devicesTable;
-    private DefaultTableModel tableModel;
+    private DeviceTableModel tableModel;
+    private TableRowSorter<DeviceTableModel> deviceSorter;
+    private DeviceSearchIndex deviceSearchIndex;
+    private Timer searchDebounceTimer;
+    private String deviceQuery = "";
+    private int deviceSearchGeneration;
 
     // Settings panel
     private JPanel settingsPanel;
+    private final Set<String> builtCards = new HashSet<>();
+    private boolean firstPaintDone;
     private JComboBox<String> themeSelector;
     private JSlider animationSpeedSlider;
 
     // Common elements
     private JProgressBar progressBar;
+    private SwingWorker<BillingResult, Void> calculationWorker;
     private JLabel statusLabel;
 
     // Data storage
-    private List<ApplianceData> savedAppliances = new ArrayList<>();
-    private List<BillHistory> billHistory = new ArrayList<>();
+    private ApplianceStore applianceStore;
+    private List<ApplianceData> savedAppliances;
+    private List<BillHistory> billHistory;
 
     // Chart component
     private JFreeChart usageChart;
     private ChartPanel chartPanel;
+    private JComboBox<String> periodSelector;
+    private DashboardStats dashboardStats;
+    private StatCard monthlyUsageCard;
+    private StatCard estimatedBillCard;
+    private StatCard peakDeviceCard;
+    private StatCard activeDevicesCard;
+    private JPanel topConsumersPanel;
+    private JLabel devicesStatsLabel;
+    private JToggleButton compareButton;
+    private JComboBox<String> resolutionSelector;
+    private JLabel meteredBillLabel;
+    private MeterSeries meterSeries;
+    // Most recently used usage datasets, keyed by "months:compare:resolution:columns"
+    private final Map<String, DefaultCategoryDataset> usageDatasetCache =
+            new LinkedHashMap<String, DefaultCategoryDataset>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, DefaultCategoryDataset> eldest) {
+                    return size() > USAGE_DATASET_CACHE_SIZE;
+                }
+            };
+    private Path meterSeriesFile;
+    private Path tariffFile;
+    private JLabel tariffDetailsLabel;
+    private JTextField[] tariffRateFields;
+    private JTextField summerSurchargeField;
+    private JComboBox<String> summerFromSelector;
+    private JComboBox<String> summerToSelector;
+    private JCheckBox timeOfUseCheckBox;
+    private JSpinner peakStartSpinner;
+    private JSpinner peakEndSpinner;
+    private JTextField peakFactorField;
+    private JTextField offPeakFactorField;
+    private JTextField fixedChargeField;
 
     // Constants for styling
     private final int SIDEBAR_WIDTH = 220;
     private final int ANIMATION_DURATION = 300; // ms
+    private static final int SIDEBAR_ICON_SIZE = 24;
+    private static final int USER_ICON_SIZE = 32;
+    // Cross-fade opacities, quantized so frames reuse the same composites
+    private static final int FADE_STEPS = 32;
+    private static final AlphaComposite[] FADE_COMPOSITES = createFadeComposites();
     private Color primaryColor = new Color(41, 128, 185);
     private Color accentColor = new Color(52, 152, 219);
     private Color backgroundColor = new Color(245, 248, 250);
@@ -74,9 +151,19 @@ public class EnhancedElectricityCalculator extends JFrame {
     private final Font HEADING_FONT = new Font("Segoe UI", Font.BOLD, 18);
     private final Font NORMAL_FONT = new Font("Segoe UI", Font.PLAIN, 14);
 
-    // Unit price tiers
-    private final double[] KWH_TIERS = {50, 100, 200, 300, 700, Double.MAX_VALUE};
-    private final double[] UNIT_PRICES = {4.81, 7.87, 10.54, 12.89, 21.88, 24.93};
+    // Billing math (unit price tiers, kWh and cost formulas)
+    private final BillingEngine billingEngine = new BillingEngine();
+    private final DeviceCatalog deviceCatalog = DeviceCatalog.getDefault();
+    private static final int TOP_CONSUMER_COUNT = 5;
+    private static final int USAGE_DATASET_CACHE_SIZE = 8;
+    private static final int METERED_REPORT_MONTHS = 12;
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("d MMM yy");
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM");
+    private static final DateTimeFormatter MONTH_YEAR_LABEL = DateTimeFormatter.ofPattern("MMM yy");
+    // Usage datasets are built for widths in steps of this many pixels, so a resize that
+    // stays within a step reuses the cached dataset
+    private static final int USAGE_COLUMN_STEP = 100;
+    private static final int USAGE_RESIZE_DELAY = 200;
 
     public EnhancedElectricityCalculator() {
         setTitle("Smart Electricity Bill Calculator");
@@ -84,53 +171,101 @@ public class EnhancedElectricityCalculator extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Apply look and feel
-        try {
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-        } catch (Exception e) {
-            e.printStackTrace();
+        // Apply look and feel, unless the launcher already has
+        if (!UIManager.getLookAndFeel().getClass().getName().equals(UIManager.getSystemLookAndFeelClassName())) {
+            try {
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
         }
 
-        // Initialize data with sample values
-        initializeSampleData();
+        // Load saved data, seeding sample values on first run
+        openApplianceStore();
+        if (applianceStore.isEmpty()) {
+            initializeSampleData();
+        }
+        if (meterSeries.isEmpty()) {
+            initializeSampleReadings();
+        }
+        StartupTimer.mark("data loaded");
 
         // Create main layout
         setLayout(new BorderLayout());
 
         // Create the sidebar and content panels
-        sidebarPanel = createSidebarPanel();
-        contentPanel = new JPanel();
+        sidebarPanel = StartupTimer.time("createSidebarPanel", this::createSidebarPanel);
         cardLayout = new CardLayout();
-        contentPanel.setLayout(cardLayout);
+        contentPanel = new CardTransitionPanel(cardLayout);
 
-        // Create all content panels
-        dashboardPanel = createDashboardPanel();
-        calculatorPanel = createCalculatorPanel();
-        devicesPanel = createDevicesPanel();
-        settingsPanel = createSettingsPanel();
-
-        // Add panels to card layout
+        // Only the dashboard is built up front; other cards are built on first visit
+        dashboardPanel = StartupTimer.time("createDashboardPanel", this::createDashboardPanel);
         contentPanel.add(dashboardPanel, "dashboard");
-        contentPanel.add(calculatorPanel, "calculator");
-        contentPanel.add(devicesPanel, "devices");
-        contentPanel.add(settingsPanel, "settings");
+        builtCards.add("dashboard");
+
+        // Keep the stat cards in step with the store
+        dashboardStats = new DashboardStats(applianceStore);
+        dashboardStats.addChangeListener(this::updateDashboardStats);
+        updateDashboardStats(dashboardStats);
 
         // Add components to main frame
         add(sidebarPanel, BorderLayout.WEST);
         add(contentPanel, BorderLayout.CENTER);
 
         // Status bar at bottom
-        JPanel statusPanel = createStatusPanel();
+        JPanel statusPanel = StartupTimer.time("createStatusPanel", this::createStatusPanel);
         add(statusPanel, BorderLayout.SOUTH);
 
         // Show the dashboard by default
         cardLayout.show(contentPanel, "dashboard");
         highlightSelectedButton(0);
 
+        // Flush pending writes to the appliance store on exit
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                applianceStore.close();
+                saveMeterSeries();
+            }
+        });
+
         // Make the window visible
         setVisible(true);
     }
 
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!firstPaintDone) {
+            firstPaintDone = true;
+            // Interactive once the events queued behind the first paint have run
+            SwingUtilities.invokeLater(StartupTimer::finish);
+        }
+    }
+
+    // Builds a card the first time it is shown
+    private void ensureCard(String cardName) {
+        if (!builtCards.add(cardName)) {
+            return;
+        }
+        JPanel card;
+        switch (cardName) {
+            case "calculator":
+                card = calculatorPanel = StartupTimer.time("createCalculatorPanel", this::createCalculatorPanel);
+                break;
+            case "devices":
+                card = devicesPanel = StartupTimer.time("createDevicesPanel", this::createDevicesPanel);
+                updateDevicesStatsLabel(dashboardStats);
+                break;
+            case "settings":
+                card = settingsPanel = StartupTimer.time("createSettingsPanel", this::createSettingsPanel);
+                break;
+            default:
+                return;
+        }
+        contentPanel.add(card, cardName);
+    }
+
     // Look for the existing createSidebarPanel method and modify it:
     private JPanel createSidebarPanel() {
         JPanel panel = new JPanel();
@@ -144,7 +279,7 @@ public class EnhancedElectricityCalculator extends JFrame {
         JLabel logoLabel = new JLabel("Smart Energy");
         logoLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
         logoLabel.setForeground(Color.WHITE);
-        logoLabel.setIcon(new ImageIcon(createLogo(32, 32)));
+        logoLabel.setIcon(logoIcon(32));
         logoPanel.add(logoLabel);
         panel.add(logoPanel, BorderLayout.NORTH);
 
@@ -156,23 +291,18 @@ public class EnhancedElectricityCalculator extends JFrame {
 
         // Menu items
         String[][] menuItems = {
-                {"Dashboard", "dashboard", "C:\\Users\\wasif\\IdeaProjects\\untitled1\\src\\resources\\icons\\home.png"},
-                {"Calculator", "calculator", "C:\\Users\\wasif\\IdeaProjects\\untitled1\\src\\resources\\icons\\calculator.png"},
-                {"My Devices", "devices", "C:\\Users\\wasif\\IdeaProjects\\untitled1\\src\\resources\\icons\\devices.png"},
-                {"Settings", "settings", "C:\\Users\\wasif\\IdeaProjects\\untitled1\\src\\resources\\icons\\settings.png"}
+                {"Dashboard", "dashboard", "home"},
+                {"Calculator", "calculator", "calculator"},
+                {"My Devices", "devices", "devices"},
+                {"Settings", "settings", "settings"}
         };
-
-        // Debug output
-        for (String[] item : menuItems) {
-            File f = new File(item[2]);
-            System.out.println("Icon path: " + item[2] + ", exists: " + f.exists());
-        }
+        IconCache icons = IconCache.getShared();
 
         for (int i = 0; i < menuItems.length; i++) {
             final int index = i;
             final String cardName = menuItems[i][1];
 
-            SidebarButton button = new SidebarButton(menuItems[i][0], menuItems[i][2]);
+            SidebarButton button = new SidebarButton(menuItems[i][0], icons.icon(menuItems[i][2], SIDEBAR_ICON_SIZE));
             navPanel.add(button);
             navPanel.add(Box.createRigidArea(new Dimension(0, 10)));
             sidebarButtons.add(button);
@@ -191,24 +321,9 @@ public class EnhancedElectricityCalculator extends JFrame {
         userPanel.setPreferredSize(new Dimension(SIDEBAR_WIDTH, 60));
         userPanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
 
-        JLabel userIcon;
-        try {
-            File userIconFile = new File("C:\\Users\\wasif\\IdeaProjects\\ElectricityCalculator\\src\\resources\\icons\\user.png");
-            if (userIconFile.exists()) {
-                // Load and resize the user icon
-                ImageIcon originalIcon = new ImageIcon(userIconFile.getPath());
-                Image scaledImage = originalIcon.getImage().getScaledInstance(32, 32, Image.SCALE_SMOOTH);
-                userIcon = new JLabel(new ImageIcon(scaledImage));
-            } else {
-                System.out.println("User icon not found, using generated avatar instead");
-                // Fall back to the generated avatar with initials
-                userIcon = new JLabel(new ImageIcon(createCircularAvatar(32, "WS")));
-            }
-        } catch (Exception e) {
-            System.out.println("Error loading user icon: " + e.getMessage());
-            // Fall back to the generated avatar with initials
-            userIcon = new JLabel(new ImageIcon(createCircularAvatar(32, "WS")));
-        }
+        // Fall back to the generated avatar with initials when the user icon is missing
+        Icon userImage = icons.icon("user", USER_ICON_SIZE);
+        JLabel userIcon = new JLabel(userImage != null ? userImage : avatarIcon(USER_ICON_SIZE));
         JLabel userName = new JLabel("Wasif Sohail");
         userName.setForeground(Color.WHITE);
         userName.setFont(new Font("Segoe UI", Font.PLAIN, 13));
@@ -269,10 +384,14 @@ public class EnhancedElectricityCalculator extends JFrame {
         JPanel statsPanel = new JPanel(new GridLayout(1, 4, 15, 0));
         statsPanel.setBackground(backgroundColor);
 
-        statsPanel.add(createStatCard("Monthly Usage", "356 kWh", "↑ 5.2%", new Color(41, 128, 185), true));
-        statsPanel.add(createStatCard("Estimated Bill", "Rs 4,289", "↑ 7.1%", new Color(46, 204, 113), true));
-        statsPanel.add(createStatCard("Peak Device", "AC (160 kWh)", "", new Color(155, 89, 182), false));
-        statsPanel.add(createStatCard("Active Devices", "12", "↑ 2", new Color(230, 126, 34), false));
+        monthlyUsageCard = createStatCard("Monthly Usage", "", "", new Color(41, 128, 185), true);
+        estimatedBillCard = createStatCard("Estimated Bill", "", "", new Color(46, 204, 113), true);
+        peakDeviceCard = createStatCard("Peak Device", "", "", new Color(155, 89, 182), false);
+        activeDevicesCard = createStatCard("Active Devices", "", "", new Color(230, 126, 34), false);
+        statsPanel.add(monthlyUsageCard);
+        statsPanel.add(estimatedBillCard);
+        statsPanel.add(peakDeviceCard);
+        statsPanel.add(activeDevicesCard);
 
         gbc.gridx = 0;
         gbc.gridy = 0;
@@ -326,16 +445,20 @@ public class EnhancedElectricityCalculator extends JFrame {
         JButton generateReportButton = createStyledButton("Generate Report", new Color(155, 89, 182));
         generateReportButton.addActionListener(e -> showGeneratingReportDialog());
 
+        JButton scenarioButton = createStyledButton("What-If Scenarios", new Color(230, 126, 34));
+        scenarioButton.addActionListener(e -> showScenarioDialog());
+
         actionPanel.add(addDeviceButton);
         actionPanel.add(generateReportButton);
+        actionPanel.add(scenarioButton);
 
         panel.add(actionPanel, BorderLayout.SOUTH);
 
         return panel;
     }
 
-    private JPanel createStatCard(String title, String value, String change, Color color, boolean showChange) {
-        JPanel card = new JPanel();
+    private StatCard createStatCard(String title, String value, String change, Color color, boolean showChange) {
+        StatCard card = new StatCard();
         card.setLayout(new BorderLayout());
         card.setBackground(Color.WHITE);
         card.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
@@ -350,9 +473,9 @@ public class EnhancedElectricityCalculator extends JFrame {
         titleLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         titleLabel.setForeground(new Color(150, 150, 150));
 
-        JLabel valueLabel = new JLabel(value);
-        valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 22));
-        valueLabel.setForeground(textColor);
+        card.valueLabel = new JLabel(value);
+        card.valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        card.valueLabel.setForeground(textColor);
 
         JPanel topPanel = new JPanel(new BorderLayout());
         topPanel.setBackground(Color.WHITE);
@@ -379,25 +502,59 @@ public class EnhancedElectricityCalculator extends JFrame {
 
         topPanel.add(titleContainer, BorderLayout.WEST);
 
-        if (showChange && !change.isEmpty()) {
-            JLabel changeLabel = new JLabel(change);
-            changeLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-
-            if (change.contains("↑")) {
-                changeLabel.setForeground(new Color(231, 76, 60)); // Red for increase
-            } else {
-                changeLabel.setForeground(new Color(46, 204, 113)); // Green for decrease
-            }
-
-            topPanel.add(changeLabel, BorderLayout.EAST);
+        if (showChange) {
+            card.changeLabel = new JLabel();
+            card.changeLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+            card.setChange(change);
+            topPanel.add(card.changeLabel, BorderLayout.EAST);
         }
 
         card.add(topPanel, BorderLayout.NORTH);
-        card.add(valueLabel, BorderLayout.CENTER);
+        card.add(card.valueLabel, BorderLayout.CENTER);
 
         return card;
     }
 
+    // Pushes the aggregator's figures to the dashboard and devices panel
+    private void updateDashboardStats(DashboardStats stats) {
+        FixedPointFormat df = FixedPointFormat.WHOLE;
+        BillHistory latestBill = stats.getLatestBill();
+
+        monthlyUsageCard.setValue(df.format(latestBill != null ? latestBill.getKwh() : stats.getTotalKwh()) + " kWh");
+        monthlyUsageCard.setChange(formatChange(stats.getUsageChangePercent()));
+        estimatedBillCard.setValue("Rs " + df.format(stats.getTotalMonthlyCost()));
+        estimatedBillCard.setChange(formatChange(stats.getEstimateChangePercent()));
+        DashboardStats.Consumer peak = stats.getPeakDevice();
+        peakDeviceCard.setValue(peak == null ? "-" : peak.getName() + " (" + df.format(peak.getKwh()) + " kWh)");
+        activeDevicesCard.setValue(df.format(stats.getDeviceCount()));
+
+        if (topConsumersPanel != null) {
+            topConsumersPanel.removeAll();
+            for (DashboardStats.Consumer consumer : stats.topConsumers(TOP_CONSUMER_COUNT)) {
+                topConsumersPanel.add(createDeviceRow(consumer.getName(), df.format(consumer.getKwh()) + " kWh",
+                        df.format(consumer.getMonthlyCost()) + " Rs"));
+                topConsumersPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+            }
+            topConsumersPanel.revalidate();
+            topConsumersPanel.repaint();
+        }
+        updateDevicesStatsLabel(stats);
+    }
+
+    private void updateDevicesStatsLabel(DashboardStats stats) {
+        if (devicesStatsLabel != null) {
+            devicesStatsLabel.setText("Total Devices: " + stats.getDeviceCount()
+                    + "   |   Total Monthly Cost: Rs" + FixedPointFormat.WHOLE.format(stats.getTotalMonthlyCost()));
+        }
+    }
+
+    private static String formatChange(double percent) {
+        if (Double.isNaN(percent)) {
+            return "";
+        }
+        return (percent >= 0 ? "↑ " : "↓ ") + String.format("%.1f%%", Math.abs(percent));
+    }
+
     private JPanel createUsageChartPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(Color.WHITE);
@@ -410,23 +567,8 @@ public class EnhancedElectricityCalculator extends JFrame {
         titleLabel.setFont(HEADING_FONT);
         titleLabel.setForeground(textColor);
 
-        // Create chart
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        // Add sample data
-        dataset.addValue(250, "Usage", "Jan");
-        dataset.addValue(290, "Usage", "Feb");
-        dataset.addValue(310, "Usage", "Mar");
-        dataset.addValue(290, "Usage", "Apr");
-        dataset.addValue(320, "Usage", "May");
-        dataset.addValue(356, "Usage", "Jun");
-
-        dataset.addValue(200, "Last Year", "Jan");
-        dataset.addValue(230, "Last Year", "Feb");
-        dataset.addValue(280, "Last Year", "Mar");
-        dataset.addValue(260, "Last Year", "Apr");
-        dataset.addValue(300, "Last Year", "May");
-        dataset.addValue(320, "Last Year", "Jun");
+        // Create chart from the meter readings' monthly rollup
+        DefaultCategoryDataset dataset = usageDataset(6, true, MeterSeries.Resolution.MONTH);
 
         usageChart = ChartFactory.createLineChart(
                 null,              // Chart title
@@ -454,12 +596,32 @@ public class EnhancedElectricityCalculator extends JFrame {
         controlPanel.setBackground(Color.WHITE);
 
         String[] periods = {"Last 6 Months", "Last Year", "Last 2 Years"};
-        JComboBox<String> periodSelector = new JComboBox<>(periods);
+        periodSelector = new JComboBox<>(periods);
 
-        JToggleButton compareButton = new JToggleButton("Compare with Previous Year");
+        compareButton = new JToggleButton("Compare with Previous Year");
         compareButton.setSelected(true);
 
+        resolutionSelector = new JComboBox<>(new String[] {"Monthly", "Daily", "Hourly"});
+
+        periodSelector.addActionListener(e -> updateUsageChart());
+        compareButton.addActionListener(e -> updateUsageChart());
+        resolutionSelector.addActionListener(e -> updateUsageChart());
+
+        // Daily and hourly series are decimated to the plot width, so re-feed once a resize
+        // settles rather than for every width a window drag passes through
+        Timer resizeTimer = new Timer(USAGE_RESIZE_DELAY, e -> updateUsageChart());
+        resizeTimer.setRepeats(false);
+        chartPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                if (resolutionSelector.getSelectedIndex() > 0) {
+                    resizeTimer.restart();
+                }
+            }
+        });
+
         controlPanel.add(compareButton);
+        controlPanel.add(resolutionSelector);
         controlPanel.add(periodSelector);
 
         JPanel headerPanel = new JPanel(new BorderLayout());
@@ -467,12 +629,157 @@ public class EnhancedElectricityCalculator extends JFrame {
         headerPanel.add(titleLabel, BorderLayout.WEST);
         headerPanel.add(controlPanel, BorderLayout.EAST);
 
+        // Newest metered month priced hour by hour, so peak-hour rates show on the dashboard
+        meteredBillLabel = new JLabel();
+        meteredBillLabel.setFont(NORMAL_FONT);
+        meteredBillLabel.setForeground(textColor);
+        updateMeteredBill();
+
         panel.add(headerPanel, BorderLayout.NORTH);
         panel.add(chartPanel, BorderLayout.CENTER);
+        panel.add(meteredBillLabel, BorderLayout.SOUTH);
 
         return panel;
     }
 
+    private void updateMeteredBill() {
+        if (meteredBillLabel == null) {
+            return;
+        }
+        List<ReportEngine.MeteredMonth> months = meteredMonths(1);
+        meteredBillLabel.setVisible(!months.isEmpty());
+        if (months.isEmpty()) {
+            return;
+        }
+        ReportEngine.MeteredMonth latest = months.get(0);
+        CompiledTariff tariff = billingEngine.getCompiledTariff();
+        double bill = tariff.meteredCost(latest.getMonth().getMonthValue(), latest.getKwhByHour())
+                + tariff.getFixedMonthlyCharge();
+        meteredBillLabel.setText("Metered bill for " + latest.getMonth().format(DateTimeFormatter.ofPattern("MMMM yyyy"))
+                + ": Rs " + FixedPointFormat.WHOLE.format(bill)
+                + (tariff.getSchedule().getTimeOfUse() != null ? " at time-of-use rates" : ""));
+    }
+
+    /**
+     * kWh per hour of day for up to the last {@code count} months of meter readings, oldest
+     * first, skipping months without readings.
+     */
+    private List<ReportEngine.MeteredMonth> meteredMonths(int count) {
+        List<ReportEngine.MeteredMonth> months = new ArrayList<>();
+        if (meterSeries.isEmpty()) {
+            return months;
+        }
+        long lastMonth = meterSeries.bucketOf(MeterSeries.Resolution.MONTH, meterSeries.getLastTimestamp());
+        for (long month = lastMonth - count + 1; month <= lastMonth; month++) {
+            if (meterSeries.count(MeterSeries.Resolution.MONTH, month) > 0) {
+                double[] kwhByHour = new double[24];
+                meterSeries.hourOfDaySums(month, kwhByHour);
+                months.add(new ReportEngine.MeteredMonth(MeterSeries.monthOf(month), kwhByHour));
+            }
+        }
+        return months;
+    }
+
+    private void updateUsageChart() {
+        int[] periodMonths = {6, 12, 24};
+        int months = periodMonths[periodSelector.getSelectedIndex()];
+        MeterSeries.Resolution[] resolutions = {
+                MeterSeries.Resolution.MONTH, MeterSeries.Resolution.DAY, MeterSeries.Resolution.HOUR
+        };
+        MeterSeries.Resolution resolution = resolutions[resolutionSelector.getSelectedIndex()];
+        DefaultCategoryDataset dataset = usageDataset(months, compareButton.isSelected(), resolution);
+
+        // Swapping the whole dataset costs the chart one change event and one re-layout
+        CategoryPlot plot = usageChart.getCategoryPlot();
+        if (plot.getDataset() != dataset) {
+            plot.getDomainAxis().setTickLabelsVisible(dataset.getColumnCount() <= 24);
+            plot.setDataset(dataset);
+        }
+    }
+
+    private DefaultCategoryDataset usageDataset(int months, boolean compare, MeterSeries.Resolution resolution) {
+        int columns = usageChartColumns();
+        String key = months + ":" + compare + ":" + resolution + ":" + columns;
+        return usageDatasetCache.computeIfAbsent(key, k -> createUsageDataset(months, compare, resolution, columns));
+    }
+
+    // Pixel columns the chart spans, rounded up to a step; before the first layout, assume
+    // the preferred width
+    private int usageChartColumns() {
+        int width = chartPanel == null ? 0 : chartPanel.getWidth();
+        if (width <= 0) {
+            return 600;
+        }
+        return (width + USAGE_COLUMN_STEP - 1) / USAGE_COLUMN_STEP * USAGE_COLUMN_STEP;
+    }
+
+    /**
+     * kWh per month, day or hour over the last {@code months} months of meter readings,
+     * optionally with the same period a year earlier. Reads one rollup slot per bucket and
+     * plots at most two points per pixel column.
+     */
+    private DefaultCategoryDataset createUsageDataset(int months, boolean compare,
+                                                      MeterSeries.Resolution resolution, int columns) {
+        long lastMonth = meterSeries.isEmpty()
+                ? MeterSeries.monthKey(YearMonth.now())
+                : meterSeries.bucketOf(MeterSeries.Resolution.MONTH, meterSeries.getLastTimestamp());
+        YearMonth firstMonth = MeterSeries.monthOf(lastMonth - months + 1);
+        LocalDate firstDay = firstMonth.atDay(1);
+        LocalDate endDay = MeterSeries.monthOf(lastMonth).atEndOfMonth().plusDays(1);
+
+        long first;
+        long yearEarlier;
+        int buckets;
+        switch (resolution) {
+            case HOUR:
+                first = firstDay.toEpochDay() * 24;
+                yearEarlier = firstDay.minusYears(1).toEpochDay() * 24;
+                buckets = (int) (endDay.toEpochDay() * 24 - first);
+                break;
+            case DAY:
+                first = firstDay.toEpochDay();
+                yearEarlier = firstDay.minusYears(1).toEpochDay();
+                buckets = (int) (endDay.toEpochDay() - first);
+                break;
+            default:
+                first = MeterSeries.monthKey(firstMonth);
+                yearEarlier = first - 12;
+                buckets = months;
+        }
+
+        double[] usage = new double[buckets];
+        meterSeries.sums(resolution, first, usage);
+        double[] lastYear = new double[buckets];
+        if (compare) {
+            meterSeries.sums(resolution, yearEarlier, lastYear);
+        }
+
+        // Labels are only formatted for the buckets left after decimation
+        IntFunction<String> label = i -> usageLabel(resolution, first + i, months);
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        if (compare) {
+            ChartFeeder.load(dataset, buckets, label, new String[] {"Usage", "Last Year"},
+                    new double[][] {usage, lastYear}, columns);
+        } else {
+            ChartFeeder.load(dataset, buckets, label, new String[] {"Usage"}, new double[][] {usage}, columns);
+        }
+        return dataset;
+    }
+
+    private static String usageLabel(MeterSeries.Resolution resolution, long bucket, int months) {
+        switch (resolution) {
+            case HOUR:
+                int hour = Math.floorMod(bucket, 24);
+                return LocalDate.ofEpochDay(Math.floorDiv(bucket, 24)).format(DAY_LABEL)
+                        + (hour < 10 ? " 0" : " ") + hour + ":00";
+            case DAY:
+                return LocalDate.ofEpochDay(bucket).format(DAY_LABEL);
+            default:
+                // Month names repeat beyond a year, so add the year to keep categories distinct
+                return MeterSeries.monthOf(bucket).format(months > 12 ? MONTH_YEAR_LABEL : MONTH_LABEL);
+        }
+    }
+
     private JPanel createDeviceListPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(Color.WHITE);
@@ -491,20 +798,8 @@ public class EnhancedElectricityCalculator extends JFrame {
         listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS));
         listPanel.setBackground(Color.WHITE);
 
-        // Sample devices
-        String[][] devices = {
-                {"Air Conditioner", "160 kWh", "1920 Rs"},
-                {"Refrigerator", "75 kWh", "591 Rs"},
-                {"Water Heater", "45 kWh", "355 Rs"},
-                {"Washing Machine", "35 kWh", "276 Rs"},
-                {"Television", "25 kWh", "197 Rs"}
-        };
-
-        for (String[] device : devices) {
-            JPanel deviceRow = createDeviceRow(device[0], device[1], device[2]);
-            listPanel.add(deviceRow);
-            listPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-        }
+        // Filled with the top consumers by updateDashboardStats
+        topConsumersPanel = listPanel;
 
         JScrollPane scrollPane = new JScrollPane(listPanel);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
@@ -690,21 +985,12 @@ public class EnhancedElectricityCalculator extends JFrame {
         // Device type selection
         JPanel deviceTypePanel = createInputRow("Device Type:", null);
 
-        String[] deviceTypes = {
-                "Select Device Type",
-                "Air Conditioner",
-                "Refrigerator",
-                "Ceiling Fan",
-                "Light Bulb",
-                "Television",
-                "Water Heater",
-                "Washing Machine",
-                "Computer",
-                "Microwave Oven",
-                "Other"
-        };
+        List<String> deviceTypes = new ArrayList<>();
+        deviceTypes.add("Select Device Type");
+        deviceTypes.addAll(deviceCatalog.getTypes());
+        deviceTypes.add("Other");
 
-        deviceTypeComboBox = new JComboBox<>(deviceTypes);
+        deviceTypeComboBox = new JComboBox<>(deviceTypes.toArray(new String[0]));
         deviceTypeComboBox.setFont(NORMAL_FONT);
         deviceTypeComboBox.addActionListener(e -> {
             if (deviceTypeComboBox.getSelectedIndex() > 0) {
@@ -717,6 +1003,21 @@ public class EnhancedElectricityCalculator extends JFrame {
         panel.add(deviceTypePanel);
         panel.add(Box.createRigidArea(new Dimension(0, 10)));
 
+        // Device model, listing the catalog profiles of the selected type
+        JPanel deviceModelPanel = createInputRow("Model:", null);
+        deviceModelComboBox = new JComboBox<>();
+        deviceModelComboBox.setFont(NORMAL_FONT);
+        deviceModelComboBox.addActionListener(e -> {
+            DeviceCatalog.DeviceProfile profile = (DeviceCatalog.DeviceProfile) deviceModelComboBox.getSelectedItem();
+            if (profile != null) {
+                applyDeviceProfile(profile);
+            }
+        });
+
+        deviceModelPanel.add(deviceModelComboBox);
+        panel.add(deviceModelPanel);
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+
         // Device name
         JPanel namePanel = createInputRow("Device Name:", null);
         deviceNameField = new JTextField(20);
@@ -789,13 +1090,13 @@ public class EnhancedElectricityCalculator extends JFrame {
         tariffTitle.setFont(new Font("Segoe UI", Font.BOLD, 14));
         tariffTitle.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        JLabel tariffDetails = new JLabel("<html>1-50 kWh: Rs4.81/unit<br>51-100 kWh: Rs7.87/unit<br>101-200 kWh: Rs10.54/unit<br>201+ kWh: Rs12.89+ /unit</html>");
-        tariffDetails.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-        tariffDetails.setAlignmentX(Component.LEFT_ALIGNMENT);
+        tariffDetailsLabel = new JLabel(describeTariff(billingEngine.getSchedule()));
+        tariffDetailsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        tariffDetailsLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
         tariffPanel.add(tariffTitle);
         tariffPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        tariffPanel.add(tariffDetails);
+        tariffPanel.add(tariffDetailsLabel);
 
         panel.add(Box.createRigidArea(new Dimension(0, 15)));
         panel.add(tariffPanel);
@@ -842,11 +1143,8 @@ public class EnhancedElectricityCalculator extends JFrame {
         resultContent.setBackground(Color.WHITE);
 
         // Initially empty result
-        resultLabel = new JLabel("<html><div style='text-align: center;'>" +
-                "<p>Enter device information and click Calculate to see the estimated electricity cost.</p>" +
-                "<p>You can save frequently used devices for quick access.</p>" +
-                "</div></html>");
-        resultLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        resultView = new ResultView();
+        resultView.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Add progress bar for calculation animation
         progressBar = new JProgressBar(0, 100);
@@ -860,7 +1158,7 @@ public class EnhancedElectricityCalculator extends JFrame {
         costBreakdownTitle.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         resultContent.add(Box.createVerticalGlue());
-        resultContent.add(resultLabel);
+        resultContent.add(resultView);
         resultContent.add(Box.createRigidArea(new Dimension(0, 20)));
         resultContent.add(progressBar);
         resultContent.add(Box.createRigidArea(new Dimension(0, 20)));
@@ -914,17 +1212,8 @@ public class EnhancedElectricityCalculator extends JFrame {
         headerPanel.add(searchPanel, BorderLayout.EAST);
         panel.add(headerPanel, BorderLayout.NORTH);
 
-        // Devices table
-        String[] columnNames = {"Device Name", "Type", "Power (W)", "Hours/Day", "Monthly kWh", "Monthly Cost", "Actions"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // Only actions column is editable
-            }
-        };
-
-        // Add sample data
-        addSampleDevicesToTable();
+        // Devices table, read directly from the appliance store
+        tableModel = new DeviceTableModel(applianceStore);
 
         devicesTable = new JTable(tableModel);
         devicesTable.setFont(NORMAL_FONT);
@@ -952,6 +1241,8 @@ public class EnhancedElectricityCalculator extends JFrame {
         devicesTable.getColumnModel().getColumn(6).setCellRenderer(new ButtonRenderer());
         devicesTable.getColumnModel().getColumn(6).setCellEditor(new ButtonEditor(new JCheckBox()));
 
+        installDeviceSearch(searchField, searchButton);
+
         JScrollPane scrollPane = new JScrollPane(devicesTable);
         scrollPane.setBorder(new ShadowBorder());
         scrollPane.getVerticalScrollBar().setUI(new ModernScrollBarUI());
@@ -965,15 +1256,16 @@ public class EnhancedElectricityCalculator extends JFrame {
         JPanel statsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         statsPanel.setBackground(backgroundColor);
 
-        JLabel statsLabel = new JLabel("Total Devices: 12   |   Total Monthly Cost: Rs4,289");
-        statsLabel.setFont(NORMAL_FONT);
-        statsPanel.add(statsLabel);
+        devicesStatsLabel = new JLabel();
+        devicesStatsLabel.setFont(NORMAL_FONT);
+        statsPanel.add(devicesStatsLabel);
 
         JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         actionPanel.setBackground(backgroundColor);
 
         JButton exportButton = new JButton("Export List");
         exportButton.setFont(NORMAL_FONT);
+        exportButton.addActionListener(e -> exportData(false));
 
         JButton addButton = createStyledButton("Add New Device", primaryColor);
         addButton.addActionListener(e -> {
@@ -1121,7 +1413,7 @@ public class EnhancedElectricityCalculator extends JFrame {
         userEmailLabel.setFont(NORMAL_FONT);
         userEmailLabel.setForeground(new Color(100, 100, 100));
 
-        userInfoPanel.add(new JLabel(new ImageIcon(createCircularAvatar(40, "user.png"))));
+        userInfoPanel.add(new JLabel(avatarIcon(40)));
 
         JPanel userTextPanel = new JPanel();
         userTextPanel.setLayout(new BoxLayout(userTextPanel, BoxLayout.Y_AXIS));
@@ -1138,9 +1430,11 @@ public class EnhancedElectricityCalculator extends JFrame {
 
         JButton exportDataButton = new JButton("Export Data");
         exportDataButton.setFont(NORMAL_FONT);
+        exportDataButton.addActionListener(e -> exportData(true));
 
         JButton importDataButton = new JButton("Import Data");
         importDataButton.setFont(NORMAL_FONT);
+        importDataButton.addActionListener(e -> importData());
 
         JButton clearDataButton = new JButton("Clear All Data");
         clearDataButton.setFont(NORMAL_FONT);
@@ -1186,8 +1480,10 @@ public class EnhancedElectricityCalculator extends JFrame {
 
         JButton cancelButton = new JButton("Cancel");
         cancelButton.setFont(NORMAL_FONT);
+        cancelButton.addActionListener(e -> loadTariffEditor(billingEngine.getSchedule()));
 
         JButton saveButton = createStyledButton("Save Changes", primaryColor);
+        saveButton.addActionListener(e -> saveTariffSettings());
 
         buttonPanel.add(cancelButton);
         buttonPanel.add(saveButton);
@@ -1213,37 +1509,256 @@ public class EnhancedElectricityCalculator extends JFrame {
         panel.add(titleLabel);
         panel.add(Box.createRigidArea(new Dimension(0, 10)));
 
-        String[] tierLabels = {"1-50 kWh", "51-100 kWh", "101-200 kWh", "201-300 kWh", "301-700 kWh", "700+ kWh"};
-        double[] rates = {4.81, 7.87, 10.54, 12.89, 21.88, 24.93};
+        TariffSchedule schedule = billingEngine.getSchedule();
+        double[] kwhTiers = schedule.getKwhTiers();
+        tariffRateFields = new JTextField[kwhTiers.length];
 
-        for (int i = 0; i < tierLabels.length; i++) {
+        for (int i = 0; i < kwhTiers.length; i++) {
             JPanel tierPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
             tierPanel.setBackground(Color.WHITE);
             tierPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-            JLabel tierLabel = new JLabel(tierLabels[i] + ": ");
+            JLabel tierLabel = new JLabel(tierRangeLabel(kwhTiers, i) + ": ");
             tierLabel.setFont(NORMAL_FONT);
             tierLabel.setPreferredSize(new Dimension(100, 25));
 
-            JTextField rateField = new JTextField(String.valueOf(rates[i]), 5);
-            rateField.setFont(NORMAL_FONT);
+            tariffRateFields[i] = new JTextField(5);
+            tariffRateFields[i].setFont(NORMAL_FONT);
 
             JLabel unitLabel = new JLabel(" Rs/unit");
             unitLabel.setFont(NORMAL_FONT);
 
             tierPanel.add(tierLabel);
-            tierPanel.add(rateField);
+            tierPanel.add(tariffRateFields[i]);
             tierPanel.add(unitLabel);
 
             panel.add(tierPanel);
-            if (i < tierLabels.length - 1) {
-                panel.add(Box.createRigidArea(new Dimension(0, 5)));
-            }
+            panel.add(Box.createRigidArea(new Dimension(0, 5)));
         }
 
+        // Seasonal rates
+        String[] months = {"January", "February", "March", "April", "May", "June", "July",
+                "August", "September", "October", "November", "December"};
+        JPanel seasonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        seasonPanel.setBackground(Color.WHITE);
+        seasonPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        summerSurchargeField = new JTextField(4);
+        summerSurchargeField.setFont(NORMAL_FONT);
+        summerFromSelector = new JComboBox<>(months);
+        summerFromSelector.setFont(NORMAL_FONT);
+        summerToSelector = new JComboBox<>(months);
+        summerToSelector.setFont(NORMAL_FONT);
+
+        JLabel seasonLabel = new JLabel("Summer surcharge: ");
+        seasonLabel.setFont(NORMAL_FONT);
+        JLabel seasonFromLabel = new JLabel(" % from ");
+        seasonFromLabel.setFont(NORMAL_FONT);
+        JLabel seasonToLabel = new JLabel(" to ");
+        seasonToLabel.setFont(NORMAL_FONT);
+
+        seasonPanel.add(seasonLabel);
+        seasonPanel.add(summerSurchargeField);
+        seasonPanel.add(seasonFromLabel);
+        seasonPanel.add(summerFromSelector);
+        seasonPanel.add(seasonToLabel);
+        seasonPanel.add(summerToSelector);
+
+        // Time-of-use window
+        JPanel timeOfUsePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        timeOfUsePanel.setBackground(Color.WHITE);
+        timeOfUsePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        timeOfUseCheckBox = new JCheckBox("Peak hours from ");
+        timeOfUseCheckBox.setFont(NORMAL_FONT);
+        timeOfUseCheckBox.setBackground(Color.WHITE);
+        peakStartSpinner = new JSpinner(new SpinnerNumberModel(17, 0, 23, 1));
+        peakStartSpinner.setFont(NORMAL_FONT);
+        peakEndSpinner = new JSpinner(new SpinnerNumberModel(23, 0, 24, 1));
+        peakEndSpinner.setFont(NORMAL_FONT);
+        peakFactorField = new JTextField(4);
+        peakFactorField.setFont(NORMAL_FONT);
+        offPeakFactorField = new JTextField(4);
+        offPeakFactorField.setFont(NORMAL_FONT);
+
+        JLabel peakToLabel = new JLabel(" to ");
+        peakToLabel.setFont(NORMAL_FONT);
+        JLabel peakPriceLabel = new JLabel(":00, peak price ");
+        peakPriceLabel.setFont(NORMAL_FONT);
+        JLabel offPeakPriceLabel = new JLabel(" %, off-peak ");
+        offPeakPriceLabel.setFont(NORMAL_FONT);
+        JLabel percentLabel = new JLabel(" %");
+        percentLabel.setFont(NORMAL_FONT);
+
+        timeOfUsePanel.add(timeOfUseCheckBox);
+        timeOfUsePanel.add(peakStartSpinner);
+        timeOfUsePanel.add(peakToLabel);
+        timeOfUsePanel.add(peakEndSpinner);
+        timeOfUsePanel.add(peakPriceLabel);
+        timeOfUsePanel.add(peakFactorField);
+        timeOfUsePanel.add(offPeakPriceLabel);
+        timeOfUsePanel.add(offPeakFactorField);
+        timeOfUsePanel.add(percentLabel);
+
+        // Fixed charge
+        JPanel fixedChargePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        fixedChargePanel.setBackground(Color.WHITE);
+        fixedChargePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        JLabel fixedChargeLabel = new JLabel("Fixed monthly charge: ");
+        fixedChargeLabel.setFont(NORMAL_FONT);
+        fixedChargeField = new JTextField(5);
+        fixedChargeField.setFont(NORMAL_FONT);
+        JLabel fixedUnitLabel = new JLabel(" Rs");
+        fixedUnitLabel.setFont(NORMAL_FONT);
+
+        fixedChargePanel.add(fixedChargeLabel);
+        fixedChargePanel.add(fixedChargeField);
+        fixedChargePanel.add(fixedUnitLabel);
+
+        panel.add(seasonPanel);
+        panel.add(Box.createRigidArea(new Dimension(0, 5)));
+        panel.add(timeOfUsePanel);
+        panel.add(Box.createRigidArea(new Dimension(0, 5)));
+        panel.add(fixedChargePanel);
+
+        loadTariffEditor(schedule);
+
         return panel;
     }
 
+    // Fills the tariff editor from a schedule, discarding unsaved edits
+    private void loadTariffEditor(TariffSchedule schedule) {
+        double[] unitPrices = schedule.getUnitPrices();
+        for (int i = 0; i < tariffRateFields.length; i++) {
+            tariffRateFields[i].setText(String.valueOf(unitPrices[i]));
+        }
+
+        // The editor shows a season as a uniform surcharge on the base prices
+        if (schedule.getSeasons().isEmpty()) {
+            summerSurchargeField.setText("0");
+            summerFromSelector.setSelectedIndex(4);
+            summerToSelector.setSelectedIndex(8);
+        } else {
+            TariffSchedule.Season summer = schedule.getSeasons().get(0);
+            double surcharge = (summer.getUnitPrices()[0] / unitPrices[0] - 1) * 100;
+            summerSurchargeField.setText(new DecimalFormat("0.##").format(surcharge));
+            summerFromSelector.setSelectedIndex(summer.getFirstMonth() - 1);
+            summerToSelector.setSelectedIndex(summer.getLastMonth() - 1);
+        }
+
+        TariffSchedule.TimeOfUse timeOfUse = schedule.getTimeOfUse();
+        timeOfUseCheckBox.setSelected(timeOfUse != null);
+        if (timeOfUse != null) {
+            peakStartSpinner.setValue(timeOfUse.getPeakStartHour());
+            peakEndSpinner.setValue(timeOfUse.getPeakEndHour());
+        }
+        peakFactorField.setText(timeOfUse == null ? "120"
+                : new DecimalFormat("0.##").format(timeOfUse.getPeakFactor() * 100));
+        offPeakFactorField.setText(timeOfUse == null ? "90"
+                : new DecimalFormat("0.##").format(timeOfUse.getOffPeakFactor() * 100));
+
+        fixedChargeField.setText(String.valueOf(schedule.getFixedMonthlyCharge()));
+    }
+
+    // Publishes the edited tariff as a new schedule version and saves it
+    private void saveTariffSettings() {
+        TariffSchedule current = billingEngine.getSchedule();
+        TariffSchedule revised;
+        try {
+            double[] unitPrices = new double[tariffRateFields.length];
+            for (int i = 0; i < unitPrices.length; i++) {
+                unitPrices[i] = Double.parseDouble(tariffRateFields[i].getText().trim());
+                if (unitPrices[i] < 0) {
+                    showErrorMessage("Rates cannot be negative.");
+                    return;
+                }
+            }
+
+            List<TariffSchedule.Season> seasons = new ArrayList<>();
+            double surcharge = Double.parseDouble(summerSurchargeField.getText().trim());
+            if (surcharge != 0) {
+                double[] summerPrices = new double[unitPrices.length];
+                for (int i = 0; i < summerPrices.length; i++) {
+                    summerPrices[i] = unitPrices[i] * (1 + surcharge / 100);
+                }
+                seasons.add(new TariffSchedule.Season("Summer", summerFromSelector.getSelectedIndex() + 1,
+                        summerToSelector.getSelectedIndex() + 1, summerPrices));
+            }
+
+            TariffSchedule.TimeOfUse timeOfUse = null;
+            if (timeOfUseCheckBox.isSelected()) {
+                timeOfUse = new TariffSchedule.TimeOfUse((Integer) peakStartSpinner.getValue(),
+                        (Integer) peakEndSpinner.getValue(),
+                        Double.parseDouble(peakFactorField.getText().trim()) / 100,
+                        Double.parseDouble(offPeakFactorField.getText().trim()) / 100);
+            }
+
+            revised = current.revise(LocalDate.now(), unitPrices, seasons, timeOfUse,
+                    Double.parseDouble(fixedChargeField.getText().trim()));
+            billingEngine.publish(revised);
+        } catch (NumberFormatException e) {
+            showErrorMessage("Please enter valid numbers for all tariff fields.");
+            return;
+        } catch (IllegalArgumentException e) {
+            showErrorMessage("Invalid tariff: " + e.getMessage());
+            return;
+        }
+
+        if (tariffDetailsLabel != null) {
+            tariffDetailsLabel.setText(describeTariff(revised));
+        }
+        updateMeteredBill();
+        if (tariffFile != null) {
+            try {
+                revised.save(tariffFile);
+            } catch (IOException e) {
+                // Already in force for this session, but it will be lost on restart
+                statusLabel.setText("Tariff version " + revised.getVersion() + " applied but not saved");
+                JOptionPane.showMessageDialog(this,
+                        "Error saving tariff: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        statusLabel.setText("Tariff version " + revised.getVersion() + " saved");
+    }
+
+    private static String tierRangeLabel(double[] kwhTiers, int tier) {
+        DecimalFormat df = new DecimalFormat("#,##0.##");
+        double lower = tier == 0 ? 0 : kwhTiers[tier - 1];
+        if (kwhTiers[tier] == Double.MAX_VALUE) {
+            return df.format(lower) + "+ kWh";
+        }
+        return df.format(lower + 1) + "-" + df.format(kwhTiers[tier]) + " kWh";
+    }
+
+    private static String describeTariff(TariffSchedule schedule) {
+        DecimalFormat df = new DecimalFormat("0.00");
+        double[] kwhTiers = schedule.getKwhTiers();
+        double[] unitPrices = schedule.getUnitPrices();
+        StringBuilder html = new StringBuilder("<html>");
+        for (int i = 0; i < kwhTiers.length; i++) {
+            html.append(tierRangeLabel(kwhTiers, i)).append(": Rs").append(df.format(unitPrices[i])).append("/unit<br>");
+        }
+        for (TariffSchedule.Season season : schedule.getSeasons()) {
+            html.append(season.getName()).append(" rates apply in months ").append(season.getFirstMonth())
+                    .append("-").append(season.getLastMonth()).append("<br>");
+        }
+        TariffSchedule.TimeOfUse timeOfUse = schedule.getTimeOfUse();
+        if (timeOfUse != null) {
+            html.append("Peak ").append(timeOfUse.getPeakStartHour()).append(":00-")
+                    .append(timeOfUse.getPeakEndHour()).append(":00 at ")
+                    .append(Math.round(timeOfUse.getPeakFactor() * 100)).append("%<br>");
+        }
+        if (schedule.getFixedMonthlyCharge() > 0) {
+            html.append("Fixed charge: Rs").append(df.format(schedule.getFixedMonthlyCharge())).append("/month<br>");
+        }
+        html.append("Tariff version ").append(schedule.getVersion()).append("</html>");
+        return html.toString();
+    }
+
     private JPanel createStatusPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(new Color(240, 240, 240));
@@ -1263,12 +1778,15 @@ public class EnhancedElectricityCalculator extends JFrame {
     }
 
     private void animateTransition(String cardName) {
+        ensureCard(cardName);
+
         // Get animation speed from settings
         int speed = animationSpeedSlider != null ? animationSpeedSlider.getValue() : 50;
 
-        if (speed <= 0) {
+        if (speed <= 0 || cardName.equals(currentCard) || !contentPanel.isShowing()) {
             // Skip animation if speed is set to off
             cardLayout.show(contentPanel, cardName);
+            currentCard = cardName;
             statusLabel.setText("Switched to " + cardName);
             return;
         }
@@ -1276,35 +1794,24 @@ public class EnhancedElectricityCalculator extends JFrame {
         // Calculate duration based on speed
         int duration = (int) (ANIMATION_DURATION * (1 - speed / 100.0)) + 50;
 
-        // Create transition animation
-        final Timer timer = new Timer(10, null);
-        final long startTime = System.currentTimeMillis();
-
-        timer.addActionListener(e -> {
-            long elapsed = System.currentTimeMillis() - startTime;
-            float progress = Math.min(1f, (float) elapsed / duration);
-
-            if (progress >= 1f) {
-                timer.stop();
-                cardLayout.show(contentPanel, cardName);
-                statusLabel.setText("Switched to " + cardName);
-                contentPanel.setOpaque(true);
-                contentPanel.setBackground(backgroundColor);
-                contentPanel.repaint();
-            } else {
-                // Fade out effect
-                float alpha = 1f - progress;
-                contentPanel.setBackground(new Color(
-                        backgroundColor.getRed(),
-                        backgroundColor.getGreen(),
-                        backgroundColor.getBlue(),
-                        (int) (alpha * 255)
-                ));
-                contentPanel.repaint();
-            }
+        // Ends a transition still running from an earlier click before capturing the screen
+        Animator.getShared().start("card transition", duration, contentPanel::setFade, () -> {
+            contentPanel.endFade();
+            statusLabel.setText("Switched to " + currentCard);
         });
 
-        timer.start();
+        // Cross-fade: the outgoing card is captured once and faded out over the new one
+        contentPanel.beginFade();
+        cardLayout.show(contentPanel, cardName);
+        currentCard = cardName;
+    }
+
+    private static AlphaComposite[] createFadeComposites() {
+        AlphaComposite[] composites = new AlphaComposite[FADE_STEPS + 1];
+        for (int step = 0; step <= FADE_STEPS; step++) {
+            composites[step] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) step / FADE_STEPS);
+        }
+        return composites;
     }
 
     private void highlightSelectedButton(int index) {
@@ -1339,120 +1846,72 @@ public class EnhancedElectricityCalculator extends JFrame {
         return button;
     }
 
-    private Image createLogo(int width, int height) {
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = image.createGraphics();
-
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        // Draw lightning bolt icon
-        g2d.setColor(new Color(255, 193, 7));
-
-        int[] xPoints = {width / 2, width / 4, width / 2, 3 * width / 4};
-        int[] yPoints = {0, height / 2, height / 2, height};
-        g2d.fillPolygon(xPoints, yPoints, 4);
-
-        g2d.dispose();
-        return image;
+    /** Reads and scales the sidebar icons; called off the EDT while the splash is up. */
+    static void preloadIcons() {
+        IconCache icons = IconCache.getShared();
+        icons.preload(new String[] {"home", "calculator", "devices", "settings"}, SIDEBAR_ICON_SIZE);
+        icons.preload(new String[] {"user"}, USER_ICON_SIZE);
     }
 
-    private Image createCircularAvatar(int size, String imageName) {
-        BufferedImage result = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2 = result.createGraphics();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    private static Icon logoIcon(int size) {
+        return IconCache.getShared().generated("logo", size, (g2d, pixels) -> {
+            // Draw lightning bolt icon
+            g2d.setColor(new Color(255, 193, 7));
 
-        // Draw circle for avatar background
-        g2.setColor(new Color(52, 152, 219));
-        g2.fillOval(0, 0, size, size);
-
-        // Draw text initials
-        g2.setColor(Color.WHITE);
-        g2.setFont(new Font("Segoe UI", Font.BOLD, size / 2));
-        FontMetrics fm = g2.getFontMetrics();
-        String text = "WS";
-        g2.drawString(text, (size - fm.stringWidth(text)) / 2, (size + fm.getAscent() - fm.getDescent()) / 2);
+            int[] xPoints = {pixels / 2, pixels / 4, pixels / 2, 3 * pixels / 4};
+            int[] yPoints = {0, pixels / 2, pixels / 2, pixels};
+            g2d.fillPolygon(xPoints, yPoints, 4);
+        });
+    }
 
-        g2.dispose();
-        return result;
+    private static Icon avatarIcon(int size) {
+        return IconCache.getShared().generated("avatar", size, (g2, pixels) -> {
+            // Draw circle for avatar background
+            g2.setColor(new Color(52, 152, 219));
+            g2.fillOval(0, 0, pixels, pixels);
+
+            // Draw text initials
+            g2.setColor(Color.WHITE);
+            g2.setFont(new Font("Segoe UI", Font.BOLD, pixels / 2));
+            FontMetrics fm = g2.getFontMetrics();
+            String text = "WS";
+            g2.drawString(text, (pixels - fm.stringWidth(text)) / 2, (pixels + fm.getAscent() - fm.getDescent()) / 2);
+        });
     }
 
     // Logic methods
 
     private void setDeviceDefaults(String deviceType) {
-        switch (deviceType) {
-            case "Air Conditioner":
-                deviceNameField.setText("Air Conditioner");
-                wattsField.setText("1500");
-                hoursField.setText("8");
-                efficiencySlider.setValue(50); // Cycles on/off
-                break;
-            case "Refrigerator":
-                deviceNameField.setText("Refrigerator");
-                wattsField.setText("150");
-                hoursField.setText("24");
-                efficiencySlider.setValue(40); // Cycles
-                break;
-            case "Ceiling Fan":
-                deviceNameField.setText("Ceiling Fan");
-                wattsField.setText("75");
-                hoursField.setText("12");
-                efficiencySlider.setValue(100); // Constant use when on
-                break;
-            case "Light Bulb":
-                deviceNameField.setText("LED Light");
-                wattsField.setText("9");
-                hoursField.setText("6");
-                efficiencySlider.setValue(100); // Constant use when on
-                break;
-            case "Television":
-                deviceNameField.setText("LED TV");
-                wattsField.setText("100");
-                hoursField.setText("5");
-                efficiencySlider.setValue(100);
-                break;
-            case "Water Heater":
-                deviceNameField.setText("Water Heater");
-                wattsField.setText("2000");
-                hoursField.setText("1");
-                efficiencySlider.setValue(100);
-                break;
-            case "Washing Machine":
-                deviceNameField.setText("Washing Machine");
-                wattsField.setText("500");
-                hoursField.setText("1");
-                efficiencySlider.setValue(80);
-                break;
-            case "Computer":
-                deviceNameField.setText("Desktop Computer");
-                wattsField.setText("200");
-                hoursField.setText("4");
-                efficiencySlider.setValue(100);
-                break;
-            case "Microwave Oven":
-                deviceNameField.setText("Microwave Oven");
-                wattsField.setText("1200");
-                hoursField.setText("0.5");
-                efficiencySlider.setValue(100);
-                break;
-            case "Other":
-                deviceNameField.setText("");
-                wattsField.setText("");
-                hoursField.setText("");
-                efficiencySlider.setValue(100);
-                break;
+        List<DeviceCatalog.DeviceProfile> profiles = deviceCatalog.profilesOfType(deviceType);
+        // Selecting the typical model fills in the fields
+        deviceModelComboBox.setModel(new DefaultComboBoxModel<>(profiles.toArray(new DeviceCatalog.DeviceProfile[0])));
+        if (profiles.isEmpty()) {
+            deviceNameField.setText("");
+            wattsField.setText("");
+            hoursField.setText("");
+            efficiencySlider.setValue(100);
+        } else {
+            applyDeviceProfile(profiles.get(0));
         }
     }
 
+    private void applyDeviceProfile(DeviceCatalog.DeviceProfile profile) {
+        DecimalFormat df = new DecimalFormat("0.##");
+        deviceNameField.setText(profile.getName());
+        wattsField.setText(df.format(profile.getWatts()));
+        hoursField.setText(df.format(profile.getHoursPerDay()));
+        efficiencySlider.setValue(profile.getDutyCycle(LocalDate.now().getMonthValue()));
+    }
+
     private void resetCalculatorFields() {
+        cancelCalculation();
         deviceTypeComboBox.setSelectedIndex(0);
+        deviceModelComboBox.setModel(new DefaultComboBoxModel<>());
         deviceNameField.setText("");
         wattsField.setText("");
         hoursField.setText("");
         efficiencySlider.setValue(100);
-        resultLabel.setText("<html><div style='text-align: center;'>" +
-                "<p>Enter device information and click Calculate to see the estimated electricity cost.</p>" +
-                "<p>You can save frequently used devices for quick access.</p>" +
-                "</div></html>");
+        resultView.showPrompt();
         statusLabel.setText("Fields reset");
     }
 
@@ -1462,42 +1921,67 @@ public class EnhancedElectricityCalculator extends JFrame {
             return;
         }
 
-        // Show progress bar animation
-        progressBar.setVisible(true);
+        // Read the inputs on the EDT; the worker only sees these values
+        String deviceName = deviceNameField.getText();
+        double watts = Double.parseDouble(wattsField.getText().trim());
+        double hours = Double.parseDouble(hoursField.getText().trim());
+        int efficiencyPercent = efficiencySlider.getValue();
+        double averageMonthlyBill = dashboardStats.getBillCount() > 0
+                ? dashboardStats.getAverageBill()
+                : dashboardStats.getTotalMonthlyCost();
+
+        // A newer calculation supersedes one still running
+        cancelCalculation();
+
         progressBar.setValue(0);
+        progressBar.setVisible(true);
 
-        // Disable main buttons during calculation
-        Component[] components = ((JPanel) progressBar.getParent()).getComponents();
-        for (Component component : components) {
-            if (component instanceof JButton) {
-                ((JButton) component).setEnabled(false);
+        SwingWorker<BillingResult, Void> worker = new SwingWorker<BillingResult, Void>() {
+            @Override
+            protected BillingResult doInBackground() {
+                // Calculate kWh and costs
+                BillingResult result = billingEngine.bill(watts, hours, efficiencyPercent);
+                setProgress(100);
+                return result;
             }
-        }
-
-        // Use a timer for animation and to simulate calculation
-        Timer timer = new Timer(30, new ActionListener() {
-            int progress = 0;
 
             @Override
-            public void actionPerformed(ActionEvent e) {
-                progress += 5;
-                progressBar.setValue(progress);
-
-                if (progress >= 100) {
-                    ((Timer) e.getSource()).stop();
-                    displayCalculationResults();
-                    progressBar.setVisible(false);
-
-                    // Re-enable buttons
-                    for (Component component : components) {
-                        if (component instanceof JButton) {
-                            ((JButton) component).setEnabled(true);
-                        }
-                    }
+            protected void done() {
+                if (calculationWorker != this) {
+                    return; // superseded or cancelled; the newer state owns the UI
+                }
+                calculationWorker = null;
+                progressBar.setVisible(false);
+                try {
+                    // Format into the view's reused summary and repaint it
+                    ResultRenderer.render(deviceName, watts, hours, efficiencyPercent, get(), averageMonthlyBill,
+                            resultView.getSummary());
+                    resultView.resultChanged();
+                    statusLabel.setText("Calculation completed for " + deviceName);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    resultView.showMessage("Error in calculation");
+                    statusLabel.setText("Error: " + cause.getMessage());
+                    cause.printStackTrace();
                 }
             }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName()) && calculationWorker == worker) {
+                progressBar.setValue((Integer) evt.getNewValue());
+            }
         });
-        timer.start();
+        calculationWorker = worker;
+        statusLabel.setText("Calculating...");
+        worker.execute();
+    }
+
+    private void cancelCalculation() {
+        if (calculationWorker != null) {
+            calculationWorker.cancel(true);
+            calculationWorker = null;
+            progressBar.setVisible(false);
+        }
     }
 
     private boolean validateCalculatorInputs() {
@@ -1547,100 +2031,6 @@ public class EnhancedElectricityCalculator extends JFrame {
                 JOptionPane.WARNING_MESSAGE);
     }
 
-    private void displayCalculationResults() {
-        try {
-            String deviceName = deviceNameField.getText();
-            double watts = Double.parseDouble(wattsField.getText().trim());
-            double hours = Double.parseDouble(hoursField.getText().trim());
-            int efficiencyPercent = efficiencySlider.getValue();
-
-            // Adjust watts based on efficiency setting
-            double effectiveWatts = watts * (efficiencyPercent / 100.0);
-
-            // Calculate monthly kWh
-            double kwh = ((effectiveWatts * hours) * 30) / 1000;
-
-            // Find appropriate unit price tier
-            double unitPrice = findUnitPrice(kwh);
-
-            // Calculate costs
-            double dailyCost = (effectiveWatts * hours * unitPrice) / 1000;
-            double monthlyCost = dailyCost * 30;
-            double annualCost = monthlyCost * 12;
-
-            // Format for display
-            DecimalFormat df = new DecimalFormat("#,##0.00");
-            DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
-
-            // Create summary for display
-            StringBuilder resultHtml = new StringBuilder();
-            resultHtml.append("<html><div style='text-align: center;'>");
-
-            // Device name and icons
-            resultHtml.append("<h2 style='margin-bottom: 5px;'>").append(deviceName).append("</h2>");
-
-            // Monthly cost - highlighted
-            resultHtml.append("<div style='background-color: #f0f8ff; padding: 10px; margin: 10px 0; border-radius: 5px;'>");
-            resultHtml.append("<p style='font-size: 14px; color: #666; margin: 0;'>MONTHLY COST</p>");
-            resultHtml.append("<p style='font-size: 24px; font-weight: bold; color: #2980b9; margin: 5px 0;'>₨").append(df.format(monthlyCost)).append("</p>");
-            resultHtml.append("</div>");
-
-            // Detailed breakdown
-            resultHtml.append("<table style='width: 100%; border-collapse: collapse;'>");
-
-            // Power consumption
-            resultHtml.append("<tr><td align='left'>Power Rating:</td><td align='right'>").append(watts).append(" watts</td></tr>");
-
-            // Efficiency adjusted
-            if (efficiencyPercent < 100) {
-                resultHtml.append("<tr><td align='left'>Effective Power:</td><td align='right'>").append(df.format(effectiveWatts)).append(" watts</td></tr>");
-            }
-
-            // Usage details
-            resultHtml.append("<tr><td align='left'>Daily Usage:</td><td align='right'>").append(hours).append(" hours</td></tr>");
-            resultHtml.append("<tr><td align='left'>Energy Used:</td><td align='right'>").append(dfKwh.format(kwh)).append(" kWh/month</td></tr>");
-            resultHtml.append("<tr><td align='left'>Rate Applied:</td><td align='right'>Rs").append(df.format(unitPrice)).append("/kWh</td></tr>");
-
-            // Cost breakdown
-            resultHtml.append("<tr><td align='left'>Daily Cost:</td><td align='right'>Rs").append(df.format(dailyCost)).append("</td></tr>");
-            resultHtml.append("<tr><td align='left' style='font-weight: bold;'>Monthly Cost:</td><td align='right' style='font-weight: bold;'>Rs").append(df.format(monthlyCost)).append("</td></tr>");
-            resultHtml.append("<tr><td align='left'>Annual Cost:</td><td align='right'>Rs").append(df.format(annualCost)).append("</td></tr>");
-
-            resultHtml.append("</table>");
-
-            // Annual comparison to visualize impact
-            resultHtml.append("<p style='margin-top: 15px;'>This device represents approximately <b>").
-                    append(df.format((monthlyCost / 4289) * 100)).
-                    append("%</b> of an average monthly electricity bill.</p>");
-
-            // Energy saving suggestion if applicable
-            if (getDeviceEfficiency(deviceName, watts) == DeviceEfficiency.LOW) {
-                resultHtml.append("<p style='color: #e74c3c; margin-top: 10px;'>This device has a high energy consumption. Consider an energy-efficient alternative to save up to 30% on electricity costs.</p>");
-            }
-
-            resultHtml.append("</div></html>");
-
-            // Set the result label
-            resultLabel.setText(resultHtml.toString());
-
-            // Update status
-            statusLabel.setText("Calculation completed for " + deviceName);
-        } catch (Exception e) {
-            resultLabel.setText("Error in calculation");
-            statusLabel.setText("Error: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private double findUnitPrice(double kwh) {
-        for (int i = 0; i < KWH_TIERS.length; i++) {
-            if (kwh <= KWH_TIERS[i]) {
-                return UNIT_PRICES[i];
-            }
-        }
-        return UNIT_PRICES[UNIT_PRICES.length - 1]; // default to highest tier
-    }
-
     private void saveCurrentDevice() {
         if (!validateCalculatorInputs()) {
             return;
@@ -1654,10 +2044,9 @@ public class EnhancedElectricityCalculator extends JFrame {
             String deviceType = (String) deviceTypeComboBox.getSelectedItem();
 
             // Calculate monthly kWh
-            double effectiveWatts = watts * (efficiencyPercent / 100.0);
-            double kwh = ((effectiveWatts * hours) * 30) / 1000;
-            double unitPrice = findUnitPrice(kwh);
-            double monthlyCost = ((effectiveWatts * hours * unitPrice) / 1000) * 30;
+            BillingResult result = billingEngine.bill(watts, hours, efficiencyPercent);
+            double kwh = result.getKwh();
+            double monthlyCost = result.getMonthlyCost();
 
             // Create new appliance data object
             ApplianceData appliance = new ApplianceData(
@@ -1665,24 +2054,8 @@ public class EnhancedElectricityCalculator extends JFrame {
                     kwh, monthlyCost, new Date()
             );
 
-            // Add to list of appliances
-            savedAppliances.add(appliance);
-
-            // Add to table model
-            DecimalFormat df = new DecimalFormat("#,##0.00");
-            DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
-
-            Object[] rowData = {
-                    deviceName,
-                    deviceType,
-                    watts,
-                    hours,
-                    dfKwh.format(kwh),
-                    "₨" + df.format(monthlyCost),
-                    "Edit/Delete"
-            };
-
-            tableModel.addRow(rowData);
+            // Add to list of appliances (the devices table updates from the store)
+            applianceStore.addAppliance(appliance);
 
             // Show confirmation
             JOptionPane.showMessageDialog(this,
@@ -1704,81 +2077,271 @@ public class EnhancedElectricityCalculator extends JFrame {
 
     // Helper methods
 
+    private void openApplianceStore() {
+        Path dataDirectory = Paths.get(System.getProperty("user.home"), ".smart-energy");
+        try {
+            applianceStore = ApplianceStore.open(dataDirectory);
+            meterSeriesFile = dataDirectory.resolve("meter.series");
+            tariffFile = dataDirectory.resolve("tariff.properties");
+        } catch (IOException e) {
+            System.out.println("Could not open appliance store, changes will not be saved: " + e.getMessage());
+            applianceStore = ApplianceStore.inMemory();
+        }
+        savedAppliances = applianceStore.getAppliances();
+        billHistory = applianceStore.getBillHistory();
+
+        meterSeries = new MeterSeries();
+        if (meterSeriesFile != null && Files.exists(meterSeriesFile)) {
+            try {
+                meterSeries = MeterSeries.load(meterSeriesFile);
+            } catch (IOException e) {
+                System.out.println("Could not read meter readings: " + e.getMessage());
+            }
+        }
+
+        if (tariffFile != null && Files.exists(tariffFile)) {
+            try {
+                billingEngine.publish(TariffSchedule.load(tariffFile));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Could not read saved tariff, using the default rates: " + e.getMessage());
+            }
+        }
+    }
+
+    private void saveMeterSeries() {
+        if (meterSeriesFile == null) {
+            return;
+        }
+        try {
+            meterSeries.save(meterSeriesFile);
+        } catch (IOException e) {
+            System.out.println("Could not save meter readings: " + e.getMessage());
+        }
+    }
+
     private void initializeSampleData() {
         // Create sample appliance data
-        savedAppliances.add(new ApplianceData("Living Room AC", "Air Conditioner", 1500, 8, 50, 160, 1920, new Date()));
-        savedAppliances.add(new ApplianceData("Kitchen Refrigerator", "Refrigerator", 150, 24, 40, 75, 591, new Date()));
-        savedAppliances.add(new ApplianceData("Bathroom Water Heater", "Water Heater", 2000, 1, 100, 45, 355, new Date()));
-        savedAppliances.add(new ApplianceData("Washing Machine", "Washing Machine", 500, 1, 80, 35, 276, new Date()));
-        savedAppliances.add(new ApplianceData("Living Room TV", "Television", 100, 5, 100, 25, 197, new Date()));
-        savedAppliances.add(new ApplianceData("Bedroom AC", "Air Conditioner", 1200, 7, 50, 95, 1150, new Date()));
-        savedAppliances.add(new ApplianceData("Kitchen Microwave", "Microwave Oven", 1200, 0.5, 100, 18, 142, new Date()));
-        savedAppliances.add(new ApplianceData("Living Room Lights", "Light Bulb", 75, 6, 100, 14, 110, new Date()));
-        savedAppliances.add(new ApplianceData("Bedroom Fan", "Ceiling Fan", 75, 8, 100, 18, 142, new Date()));
-        savedAppliances.add(new ApplianceData("Study Computer", "Computer", 200, 4, 100, 24, 189, new Date()));
-        savedAppliances.add(new ApplianceData("Bedroom Lights", "Light Bulb", 45, 4, 100, 5.4, 43, new Date()));
-        savedAppliances.add(new ApplianceData("Kitchen Fan", "Ceiling Fan", 60, 3, 100, 5.4, 43, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Living Room AC", "Air Conditioner", 1500, 8, 50, 160, 1920, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Kitchen Refrigerator", "Refrigerator", 150, 24, 40, 75, 591, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Bathroom Water Heater", "Water Heater", 2000, 1, 100, 45, 355, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Washing Machine", "Washing Machine", 500, 1, 80, 35, 276, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Living Room TV", "Television", 100, 5, 100, 25, 197, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Bedroom AC", "Air Conditioner", 1200, 7, 50, 95, 1150, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Kitchen Microwave", "Microwave Oven", 1200, 0.5, 100, 18, 142, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Living Room Lights", "Light Bulb", 75, 6, 100, 14, 110, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Bedroom Fan", "Ceiling Fan", 75, 8, 100, 18, 142, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Study Computer", "Computer", 200, 4, 100, 24, 189, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Bedroom Lights", "Light Bulb", 45, 4, 100, 5.4, 43, new Date()));
+        applianceStore.addAppliance(new ApplianceData("Kitchen Fan", "Ceiling Fan", 60, 3, 100, 5.4, 43, new Date()));
 
         // Create sample bill history
-        billHistory.add(new BillHistory("January", 305, 2890, "2024-01-25"));
-        billHistory.add(new BillHistory("February", 290, 2540, "2024-02-25"));
-        billHistory.add(new BillHistory("March", 320, 3450, "2024-03-25"));
-        billHistory.add(new BillHistory("April", 356, 4289, "2024-04-25"));
-    }
-
-    private void addSampleDevicesToTable() {
-        DecimalFormat df = new DecimalFormat("#,##0.00");
-        DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
-
-        for (ApplianceData appliance : savedAppliances) {
-            Object[] rowData = {
-                    appliance.getName(),
-                    appliance.getType(),
-                    appliance.getWatts(),
-                    appliance.getHours(),
-                    dfKwh.format(appliance.getKwh()),
-                    "Rs" + df.format(appliance.getMonthlyCost()),
-                    "Edit/Delete"
-            };
+        applianceStore.addBill(new BillHistory("January", 305, 2890, "2024-01-25"));
+        applianceStore.addBill(new BillHistory("February", 290, 2540, "2024-02-25"));
+        applianceStore.addBill(new BillHistory("March", 320, 3450, "2024-03-25"));
+        applianceStore.addBill(new BillHistory("April", 356, 4289, "2024-04-25"));
+    }
 
-            tableModel.addRow(rowData);
+    private void initializeSampleReadings() {
+        // Two years of 15-minute meter readings with a daily and seasonal pattern
+        Random random = new Random(42);
+        LocalDate start = LocalDate.now().minusYears(2).withDayOfMonth(1);
+        long interval = 15 * 60 * 1000L;
+        long time = start.atStartOfDay(meterSeries.getZone()).toInstant().toEpochMilli();
+        long end = System.currentTimeMillis();
+        while (time <= end) {
+            LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), meterSeries.getZone());
+            double season = 1 + 0.3 * Math.cos((local.getMonthValue() - 7) * Math.PI / 6);
+            double hourOfDay = local.getHour() + local.getMinute() / 60.0;
+            double daily = 0.6 + 0.4 * Math.cos((hourOfDay - 20) * Math.PI / 12);
+            double kwh = 0.1 * season * daily * (0.8 + 0.4 * random.nextDouble());
+            meterSeries.append(time, Math.round(kwh * 1000) / 1000.0);
+            time += interval;
         }
     }
 
-    private enum DeviceEfficiency {
-        HIGH, MEDIUM, LOW
+    private void importData() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV or JSON files", "csv", "json", "jsonl", "ndjson"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        if (!ApplianceImporter.isSupported(file)) {
+            showErrorMessage("Please choose a .csv, .json or .jsonl file.");
+            return;
+        }
+
+        JProgressBar importProgress = new JProgressBar(0, 100);
+        JButton cancelButton = new JButton("Cancel");
+        JDialog dialog = createProgressDialog("Importing Data", "Importing " + file.getFileName() + "...",
+                importProgress, cancelButton);
+
+        // Meter readings are collected off the EDT, in file order, and merged once the import succeeds
+        MeterSeries.Batch importedReadings = new MeterSeries.Batch();
+
+        // Parse off the EDT; records arrive here in batches through process()
+        SwingWorker<ApplianceImporter.ImportResult, Object> worker = new SwingWorker<ApplianceImporter.ImportResult, Object>() {
+            @Override
+            protected ApplianceImporter.ImportResult doInBackground() throws Exception {
+                ApplianceImporter importer = new ApplianceImporter(billingEngine);
+                return importer.importFile(file, new ApplianceImporter.RecordSink() {
+                    @Override
+                    public void appliance(ApplianceData appliance) {
+                        publish(appliance);
+                    }
+
+                    @Override
+                    public void bill(BillHistory bill) {
+                        publish(bill);
+                    }
+
+                    @Override
+                    public void reading(long timestampMillis, double kwh) {
+                        importedReadings.add(timestampMillis, kwh);
+                    }
+                }, (bytesRead, totalBytes, records) -> {
+                    setProgress(totalBytes == 0 ? 100 : (int) Math.min(100, bytesRead * 100 / totalBytes));
+                });
+            }
+
+            @Override
+            protected void process(List<Object> records) {
+                List<ApplianceData> added = new ArrayList<>();
+                List<BillHistory> bills = new ArrayList<>();
+                for (Object record : records) {
+                    if (record instanceof ApplianceData) {
+                        added.add((ApplianceData) record);
+                    } else {
+                        bills.add((BillHistory) record);
+                    }
+                }
+                applianceStore.addAppliances(added);
+                applianceStore.addBills(bills);
+            }
+
+            @Override
+            protected void done() {
+                dialog.dispose();
+                if (isCancelled()) {
+                    statusLabel.setText("Import cancelled");
+                    return;
+                }
+                try {
+                    ApplianceImporter.ImportResult result = get();
+                    String readings = "";
+                    if (result.getReadings() > 0) {
+                        int merged = meterSeries.merge(importedReadings);
+                        int duplicates = importedReadings.size() - merged;
+                        readings = ", " + merged + " meter readings" + (duplicates > 0
+                                ? " (" + duplicates + " already recorded)" : "");
+                        usageDatasetCache.clear();
+                        updateUsageChart();
+                        updateMeteredBill();
+                    }
+                    statusLabel.setText("Imported " + result.getAppliances() + " devices and "
+                            + result.getBills() + " bills" + readings + (result.getSkipped() > 0
+                            ? " (" + result.getSkipped() + " rows skipped)" : ""));
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(EnhancedElectricityCalculator.this,
+                            "Error importing data: " + cause.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    statusLabel.setText("Import failed");
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                importProgress.setValue((Integer) evt.getNewValue());
+            }
+        });
+        cancelButton.addActionListener(e -> worker.cancel(true));
+
+        statusLabel.setText("Importing " + file.getFileName());
+        worker.execute();
+        dialog.setVisible(true);
     }
 
-    private DeviceEfficiency getDeviceEfficiency(String deviceName, double watts) {
-        // Simple efficiency check based on device type and watts
-        String deviceNameLower = deviceName.toLowerCase();
+    private void exportData(boolean includeBills) {
+        JFileChooser chooser = new JFileChooser();
+        FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV (*.csv)", "csv");
+        chooser.addChoosableFileFilter(csvFilter);
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON Lines (*.jsonl)", "jsonl"));
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("Compact binary (*.bin)", "bin"));
+        chooser.setFileFilter(csvFilter);
+        chooser.setSelectedFile(new File(includeBills ? "energy-data.csv" : "devices.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
 
-        if (deviceNameLower.contains("ac") || deviceNameLower.contains("air conditioner")) {
-            if (watts < 1000) return DeviceEfficiency.HIGH;
-            else if (watts < 1500) return DeviceEfficiency.MEDIUM;
-            else return DeviceEfficiency.LOW;
-        } else if (deviceNameLower.contains("refrigerator") || deviceNameLower.contains("fridge")) {
-            if (watts < 100) return DeviceEfficiency.HIGH;
-            else if (watts < 150) return DeviceEfficiency.MEDIUM;
-            else return DeviceEfficiency.LOW;
-        } else if (deviceNameLower.contains("light") || deviceNameLower.contains("bulb")) {
-            if (watts < 10) return DeviceEfficiency.HIGH;
-            else if (watts < 30) return DeviceEfficiency.MEDIUM;
-            else return DeviceEfficiency.LOW;
-        } else if (deviceNameLower.contains("fan")) {
-            if (watts < 50) return DeviceEfficiency.HIGH;
-            else if (watts < 70) return DeviceEfficiency.MEDIUM;
-            else return DeviceEfficiency.LOW;
+        Path chosen = chooser.getSelectedFile().toPath();
+        ApplianceExporter.Format format = ApplianceExporter.Format.forFile(chosen);
+        if (format == null) {
+            // No recognised extension: use the selected filter's, or CSV under "All Files"
+            String extension = chooser.getFileFilter() instanceof FileNameExtensionFilter
+                    ? ((FileNameExtensionFilter) chooser.getFileFilter()).getExtensions()[0]
+                    : csvFilter.getExtensions()[0];
+            format = ApplianceExporter.Format.forFile(Paths.get("export." + extension));
+            chosen = chosen.resolveSibling(chosen.getFileName() + "." + extension);
         }
+        Path file = chosen;
+        ApplianceExporter.Format exportFormat = format;
+
+        // The exporter streams the live table under its read lock and fails if it is edited meanwhile
+        ApplianceTable appliances = applianceStore.getApplianceTable();
+        int deviceCount = appliances.size();
+        List<BillHistory> bills = includeBills ? new ArrayList<>(billHistory) : null;
 
-        // Default efficiency check based on watts
-        if (watts < 100) return DeviceEfficiency.HIGH;
-        else if (watts < 500) return DeviceEfficiency.MEDIUM;
-        else return DeviceEfficiency.LOW;
+        JProgressBar exportProgress = new JProgressBar(0, 100);
+        JButton cancelButton = new JButton("Cancel");
+        JDialog dialog = createProgressDialog("Exporting Data", "Exporting to " + file.getFileName() + "...",
+                exportProgress, cancelButton);
+
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                new ApplianceExporter().export(appliances, bills, file, exportFormat, (rowsWritten, totalRows) -> {
+                    setProgress(totalRows == 0 ? 100 : (int) (rowsWritten * 100 / totalRows));
+                });
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                dialog.dispose();
+                if (isCancelled()) {
+                    statusLabel.setText("Export cancelled");
+                    return;
+                }
+                try {
+                    get();
+                    statusLabel.setText("Exported " + deviceCount + " devices"
+                            + (bills != null ? " and " + bills.size() + " bills" : "") + " to " + file.getFileName());
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(EnhancedElectricityCalculator.this,
+                            "Error exporting data: " + cause.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    statusLabel.setText("Export failed");
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                exportProgress.setValue((Integer) evt.getNewValue());
+            }
+        });
+        cancelButton.addActionListener(e -> worker.cancel(true));
+
+        statusLabel.setText("Exporting to " + file.getFileName());
+        worker.execute();
+        dialog.setVisible(true);
     }
 
-    private void showGeneratingReportDialog() {
-        JDialog dialog = new JDialog(this, "Generating Report", true);
+    private JDialog createProgressDialog(String title, String message, JProgressBar progress, JButton cancelButton) {
+        JDialog dialog = new JDialog(this, title, false);
         dialog.setSize(400, 150);
         dialog.setLocationRelativeTo(this);
         dialog.setLayout(new BorderLayout());
@@ -1787,43 +2350,348 @@ public class EnhancedElectricityCalculator extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         panel.setBackground(Color.WHITE);
 
-        JLabel messageLabel = new JLabel("Generating comprehensive energy report...");
+        JLabel messageLabel = new JLabel(message);
         messageLabel.setFont(NORMAL_FONT);
 
-        JProgressBar progressBar = new JProgressBar(0, 100);
-        progressBar.setStringPainted(true);
-        progressBar.setIndeterminate(true);
+        progress.setStringPainted(true);
+        cancelButton.setFont(NORMAL_FONT);
 
-        panel.add(messageLabel, BorderLayout.NORTH);
-        panel.add(progressBar, BorderLayout.CENTER);
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(Color.WHITE);
+        buttonPanel.add(cancelButton);
 
+        panel.add(messageLabel, BorderLayout.NORTH);
+        panel.add(progress, BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
         dialog.add(panel);
 
-        // Start a timer to simulate report generation
-        Timer timer = new Timer(2000, e -> {
-            ((Timer) e.getSource()).stop();
-            dialog.dispose();
-            showReportGeneratedDialog();
+        return dialog;
+    }
+
+    private void showGeneratingReportDialog() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("HTML report (*.html)", "html", "htm"));
+        chooser.setSelectedFile(new File("energy-report.html"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path chosen = chooser.getSelectedFile().toPath();
+        String fileName = chosen.getFileName().toString().toLowerCase();
+        Path file = fileName.endsWith(".html") || fileName.endsWith(".htm")
+                ? chosen : chosen.resolveSibling(chosen.getFileName() + ".html");
+
+        // Snapshot the table and tariff on the EDT so the report stays consistent while edits continue
+        ReportEngine.Account account = new ReportEngine.Account(System.getProperty("user.name"),
+                applianceStore.getApplianceTable().snapshot(), new ArrayList<>(billHistory),
+                meteredMonths(METERED_REPORT_MONTHS), billingEngine.getCompiledTariff());
+
+        JProgressBar reportProgress = new JProgressBar(0, 100);
+        JButton cancelButton = new JButton("Cancel");
+        JDialog dialog = createProgressDialog("Generating Report", "Generating comprehensive energy report...",
+                reportProgress, cancelButton);
+
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                new ReportEngine(billingEngine).write(account, file, (sectionsWritten, totalSections) -> {
+                    setProgress(sectionsWritten * 100 / totalSections);
+                });
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                dialog.dispose();
+                if (isCancelled()) {
+                    statusLabel.setText("Report cancelled");
+                    return;
+                }
+                try {
+                    get();
+                    statusLabel.setText("Report saved to " + file.getFileName());
+                    showReportGeneratedDialog(file);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(EnhancedElectricityCalculator.this,
+                            "Error generating report: " + cause.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    statusLabel.setText("Report failed");
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                reportProgress.setValue((Integer) evt.getNewValue());
+            }
         });
-        timer.start();
+        cancelButton.addActionListener(e -> worker.cancel(true));
 
+        statusLabel.setText("Generating report");
+        worker.execute();
         dialog.setVisible(true);
     }
 
-    private void showReportGeneratedDialog() {
-        JOptionPane.showMessageDialog(this,
-                "Your energy usage report has been generated and is ready for viewing.\n" +
-                        "A copy has also been sent to your registered email address.",
+    private void showReportGeneratedDialog(Path file) {
+        boolean canOpen = Desktop.isDesktopSupported() && Desktop.getDesktop().isSupported(Desktop.Action.BROWSE);
+        if (!canOpen) {
+            JOptionPane.showMessageDialog(this,
+                    "Your energy usage report has been saved to:\n" + file,
+                    "Report Generated",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        int option = JOptionPane.showConfirmDialog(this,
+                "Your energy usage report has been saved to:\n" + file + "\n\nOpen it now?",
                 "Report Generated",
+                JOptionPane.YES_NO_OPTION,
                 JOptionPane.INFORMATION_MESSAGE);
+        if (option == JOptionPane.YES_OPTION) {
+            try {
+                Desktop.getDesktop().browse(file.toUri());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void showScenarioDialog() {
+        JDialog dialog = new JDialog(this, "What-If Scenarios", false);
+        dialog.setSize(720, 620);
+        dialog.setLocationRelativeTo(this);
+        dialog.setLayout(new BorderLayout());
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        panel.setBackground(Color.WHITE);
+
+        // Rules
+        DefaultListModel<Scenario.Rule> rules = new DefaultListModel<>();
+        JList<Scenario.Rule> ruleList = new JList<>(rules);
+        ruleList.setFont(NORMAL_FONT);
+        ruleList.setVisibleRowCount(4);
+
+        String[] presets = {"Custom", "Every AC at 40% efficiency", "Every bulb becomes a 9 W LED", "Halve AC hours"};
+        JComboBox<String> presetSelector = new JComboBox<>(presets);
+        presetSelector.addActionListener(e -> {
+            rules.clear();
+            switch (presetSelector.getSelectedIndex()) {
+                case 1:
+                    rules.addElement(new Scenario.Rule(Scenario.Target.TYPE, "Air Conditioner",
+                            Scenario.Field.EFFICIENCY, Scenario.Operation.SET, 40));
+                    break;
+                case 2:
+                    rules.addElement(new Scenario.Rule(Scenario.Target.TYPE, "Bulb",
+                            Scenario.Field.WATTS, Scenario.Operation.SET, 9));
+                    break;
+                case 3:
+                    rules.addElement(new Scenario.Rule(Scenario.Target.TYPE, "Air Conditioner",
+                            Scenario.Field.HOURS, Scenario.Operation.SCALE, 0.5));
+                    break;
+                default:
+                    break;
+            }
+        });
+
+        JComboBox<String> targetSelector = new JComboBox<>(new String[] {"Type", "Name"});
+        JTextField matchField = new JTextField(10);
+        JComboBox<Scenario.Field> fieldSelector = new JComboBox<>(Scenario.Field.values());
+        JComboBox<String> operationSelector = new JComboBox<>(new String[] {"Set to", "Multiply by"});
+        JTextField valueField = new JTextField(5);
+        JButton addRuleButton = new JButton("Add Rule");
+        addRuleButton.addActionListener(e -> {
+            try {
+                double value = Double.parseDouble(valueField.getText().trim());
+                if (matchField.getText().trim().isEmpty()) {
+                    showErrorMessage("Please enter the name or type text to match.");
+                    return;
+                }
+                rules.addElement(new Scenario.Rule(
+                        targetSelector.getSelectedIndex() == 0 ? Scenario.Target.TYPE : Scenario.Target.NAME,
+                        matchField.getText(), (Scenario.Field) fieldSelector.getSelectedItem(),
+                        operationSelector.getSelectedIndex() == 0 ? Scenario.Operation.SET : Scenario.Operation.SCALE,
+                        value));
+            } catch (NumberFormatException ex) {
+                showErrorMessage("Please enter a valid number for the new value.");
+            }
+        });
+        JButton removeRuleButton = new JButton("Remove");
+        removeRuleButton.addActionListener(e -> {
+            int index = ruleList.getSelectedIndex();
+            if (index >= 0) {
+                rules.remove(index);
+            }
+        });
+
+        JPanel builderPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        builderPanel.setBackground(Color.WHITE);
+        builderPanel.add(targetSelector);
+        builderPanel.add(new JLabel("contains"));
+        builderPanel.add(matchField);
+        builderPanel.add(fieldSelector);
+        builderPanel.add(operationSelector);
+        builderPanel.add(valueField);
+        builderPanel.add(addRuleButton);
+        builderPanel.add(removeRuleButton);
+
+        JPanel presetPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        presetPanel.setBackground(Color.WHITE);
+        presetPanel.add(new JLabel("Preset:"));
+        presetPanel.add(presetSelector);
+
+        JPanel rulesPanel = new JPanel(new BorderLayout(5, 5));
+        rulesPanel.setBackground(Color.WHITE);
+        rulesPanel.add(presetPanel, BorderLayout.NORTH);
+        rulesPanel.add(new JScrollPane(ruleList), BorderLayout.CENTER);
+        rulesPanel.add(builderPanel, BorderLayout.SOUTH);
+
+        // Results
+        JTextArea resultArea = new JTextArea();
+        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        resultArea.setEditable(false);
+        resultArea.setText("Choose a preset or add rules, then click Run.");
+
+        JButton runButton = new JButton("Run");
+        runButton.setFont(NORMAL_FONT);
+        JButton closeButton = new JButton("Close");
+        closeButton.setFont(NORMAL_FONT);
+        closeButton.addActionListener(e -> dialog.dispose());
+
+        SwingWorker<?, ?>[] running = new SwingWorker<?, ?>[1];
+        runButton.addActionListener(e -> {
+            if (rules.isEmpty()) {
+                showErrorMessage("Please add at least one rule.");
+                return;
+            }
+            Scenario scenario = new Scenario((String) presetSelector.getSelectedItem(), Collections.list(rules.elements()));
+            // Snapshot on the EDT so the simulation sees a consistent table while edits continue
+            ApplianceTable appliances = applianceStore.getApplianceTable().snapshot();
+
+            SwingWorker<ScenarioSimulator.Result, Void> worker = new SwingWorker<ScenarioSimulator.Result, Void>() {
+                @Override
+                protected ScenarioSimulator.Result doInBackground() throws Exception {
+                    return new ScenarioSimulator(billingEngine).simulate(appliances, scenario);
+                }
+
+                @Override
+                protected void done() {
+                    runButton.setEnabled(true);
+                    if (isCancelled()) {
+                        return;
+                    }
+                    try {
+                        resultArea.setText(formatScenarioResult(get()));
+                        resultArea.setCaretPosition(0);
+                    } catch (Exception ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        resultArea.setText("Simulation failed: " + cause.getMessage());
+                    }
+                }
+            };
+            running[0] = worker;
+            runButton.setEnabled(false);
+            resultArea.setText("Simulating " + appliances.size() + " devices...");
+            worker.execute();
+        });
+
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (running[0] != null) {
+                    running[0].cancel(true);
+                }
+            }
+        });
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(Color.WHITE);
+        buttonPanel.add(runButton);
+        buttonPanel.add(closeButton);
+
+        panel.add(rulesPanel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(resultArea), BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        dialog.add(panel);
+        dialog.setVisible(true);
+    }
+
+    private static String formatScenarioResult(ScenarioSimulator.Result result) {
+        DecimalFormat df = new DecimalFormat("#,##0");
+        StringBuilder text = new StringBuilder();
+        text.append("Scenario: ").append(result.getScenario().getName()).append('\n');
+        for (Scenario.Rule rule : result.getScenario().getRules()) {
+            text.append("  ").append(rule).append('\n');
+        }
+        text.append('\n');
+        text.append("Devices:         ").append(df.format(result.getAppliances()))
+                .append(" (").append(df.format(result.getAffected())).append(" affected)\n");
+        text.append("Monthly energy:  ").append(df.format(result.getBaselineKwh())).append(" kWh -> ")
+                .append(df.format(result.getScenarioKwh())).append(" kWh\n");
+        text.append("Monthly cost:    Rs").append(df.format(result.getBaselineCost())).append(" -> Rs")
+                .append(df.format(result.getScenarioCost())).append('\n');
+        text.append("Savings:         Rs").append(df.format(result.getSavings())).append(" per month, Rs")
+                .append(df.format(result.getSavings() * 12)).append(" per year (")
+                .append(String.format("%.1f%%", result.getSavingsPercent())).append(")\n");
+        if (result.getAffected() > 0) {
+            text.append("Saved per affected device: median ~").append(df.format(result.percentile(50)))
+                    .append("%, 90th percentile ~").append(df.format(result.percentile(90))).append("%\n");
+        }
+
+        // Distribution of percent saved across affected devices
+        long[] histogram = result.getHistogram();
+        long largest = 1;
+        for (long count : histogram) {
+            largest = Math.max(largest, count);
+        }
+        text.append("\nSavings distribution (affected devices):\n");
+        for (int bin = 0; bin < histogram.length; bin++) {
+            String label = bin == 0 ? "costs more"
+                    : ((bin - 1) * ScenarioSimulator.BIN_PERCENT) + "-" + (bin * ScenarioSimulator.BIN_PERCENT) + "%";
+            int bar = (int) (histogram[bin] * 40 / largest);
+            text.append(String.format("  %-10s |", label));
+            for (int i = 0; i < bar; i++) {
+                text.append('#');
+            }
+            text.append(' ').append(df.format(histogram[bin])).append('\n');
+        }
+
+        if (!result.getSavingsByType().isEmpty()) {
+            text.append("\nMonthly savings by type:\n");
+            for (Map.Entry<String, Double> entry : result.getSavingsByType().entrySet()) {
+                text.append(String.format("  %-20s Rs", entry.getKey())).append(df.format(entry.getValue())).append('\n');
+            }
+        }
+        text.append(String.format("%nComputed in %.0f ms", result.getElapsedNanos() / 1e6));
+        return text.toString();
     }
 
     // Inner classes for components
 
+    private class StatCard extends JPanel {
+        private JLabel valueLabel;
+        private JLabel changeLabel;
+
+        void setValue(String value) {
+            valueLabel.setText(value);
+        }
+
+        void setChange(String change) {
+            if (changeLabel == null) {
+                return;
+            }
+            changeLabel.setText(change);
+            if (change.contains("↑")) {
+                changeLabel.setForeground(new Color(231, 76, 60)); // Red for increase
+            } else {
+                changeLabel.setForeground(new Color(46, 204, 113)); // Green for decrease
+            }
+        }
+    }
+
     private class SidebarButton extends JButton {
         private boolean isSelected = false;
 
-        public SidebarButton(String text, String iconPath) {
+        public SidebarButton(String text, Icon icon) {
             super(text);
             setFont(NORMAL_FONT);
             setForeground(Color.WHITE);
@@ -1834,23 +2702,11 @@ public class EnhancedElectricityCalculator extends JFrame {
             setHorizontalAlignment(SwingConstants.LEFT);
             setCursor(new Cursor(Cursor.HAND_CURSOR));
 
-            // Load icon from file path
-            try {
-                File iconFile = new File(iconPath);
-                if (iconFile.exists()) {
-                    // Load and resize icon
-                    ImageIcon originalIcon = new ImageIcon(iconPath);
-                    Image scaledImage = originalIcon.getImage().getScaledInstance(24, 24, Image.SCALE_SMOOTH);
-                    setIcon(new ImageIcon(scaledImage));
-
-                    // Add some padding
-                    setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
-                } else {
-                    System.out.println("Icon file not found: " + iconPath);
-                }
-            } catch (Exception e) {
-                System.out.println("Error loading icon: " + e.getMessage());
-                e.printStackTrace();
+            if (icon != null) {
+                setIcon(icon);
+
+                // Add some padding
+                setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
             }
 
             // Set preferred size
@@ -1888,28 +2744,83 @@ public class EnhancedElectricityCalculator extends JFrame {
         }
     }
 
+    // Card container that can paint a snapshot of the previous card over the current one
+    private class CardTransitionPanel extends JPanel {
+        // Reused by every transition while the panel keeps its size and screen scale
+        private BufferedImage snapshot;
+        private boolean fading;
+        private int fadeStep;
+
+        CardTransitionPanel(LayoutManager layout) {
+            super(layout);
+        }
+
+        void beginFade() {
+            fading = false;
+            int width = getWidth();
+            int height = getHeight();
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+            GraphicsConfiguration configuration = getGraphicsConfiguration();
+            double scale = configuration != null ? configuration.getDefaultTransform().getScaleX() : 1;
+            int imageWidth = (int) Math.ceil(width * scale);
+            int imageHeight = (int) Math.ceil(height * scale);
+            if (snapshot == null || snapshot.getWidth() != imageWidth || snapshot.getHeight() != imageHeight) {
+                snapshot = configuration != null
+                        ? configuration.createCompatibleImage(imageWidth, imageHeight)
+                        : new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+            }
+            Graphics2D g2d = snapshot.createGraphics();
+            g2d.scale(scale, scale);
+            paint(g2d);
+            g2d.dispose();
+            fading = true;
+            fadeStep = FADE_STEPS;
+        }
+
+        void setFade(float progress) {
+            int step = Math.round((1 - progress) * FADE_STEPS);
+            // Frames that would not change the opacity are not repainted
+            if (fading && step != fadeStep) {
+                fadeStep = step;
+                repaint();
+            }
+        }
+
+        void endFade() {
+            if (fading) {
+                fading = false;
+                repaint();
+            }
+        }
+
+        // Repaints of the new card's children also have to redraw the overlay
+        @Override
+        protected boolean isPaintingOrigin() {
+            return fading;
+        }
+
+        @Override
+        public void paint(Graphics g) {
+            super.paint(g);
+            if (fading && fadeStep > 0) {
+                Graphics2D g2d = (Graphics2D) g.create();
+                g2d.setComposite(FADE_COMPOSITES[fadeStep]);
+                g2d.drawImage(snapshot, 0, 0, getWidth(), getHeight(), null);
+                g2d.dispose();
+            }
+        }
+    }
+
     private class ShadowBorder extends AbstractBorder {
         private static final int SHADOW_SIZE = 5;
+        // Rounded white card with its shadow, pre-rendered and shared by every border
+        private final NineSlice background = NineSlice.shadowed(Color.WHITE, 10, SHADOW_SIZE);
         
         @Override
         public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
-            Graphics2D g2d = (Graphics2D) g.create();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            
-            // Draw rounded rectangle
-            g2d.setColor(Color.WHITE);
-            g2d.fillRoundRect(x, y, width - SHADOW_SIZE, height - SHADOW_SIZE, 10, 10);
-            
-            // Draw shadow
-            for (int i = 0; i < SHADOW_SIZE; i++) {
-                float alpha = 0.1f - (i * 0.02f);
-                if (alpha < 0) alpha = 0;
-                
-                g2d.setColor(new Color(0, 0, 0, alpha));
-                g2d.drawRoundRect(x + i, y + i, width - i * 2, height - i * 2, 10, 10);
-            }
-            
-            g2d.dispose();
+            background.paint(g, x, y, width, height);
         }
         
         @Override
@@ -2040,7 +2951,7 @@ public class EnhancedElectricityCalculator extends JFrame {
                 
                 editItem.addActionListener(e -> {
                     // Open calculator with this device's values
-                    ApplianceData appliance = savedAppliances.get(editingRow);
+                    ApplianceData appliance = savedAppliances.get(devicesTable.convertRowIndexToModel(editingRow));
                     loadApplianceToCalculator(appliance);
                     animateTransition("calculator");
                     highlightSelectedButton(1); // Calculator button
@@ -2056,8 +2967,7 @@ public class EnhancedElectricityCalculator extends JFrame {
                     
                     if (option == JOptionPane.YES_OPTION) {
                         // Remove from data list and table
-                        savedAppliances.remove(editingRow);
-                        tableModel.removeRow(editingRow);
+                        applianceStore.removeAppliance(devicesTable.convertRowIndexToModel(editingRow));
                         statusLabel.setText("Device deleted");
                     }
                 });
@@ -2077,7 +2987,91 @@ public class EnhancedElectricityCalculator extends JFrame {
         }
     }
     
+    // Device search
+    private void installDeviceSearch(JTextField searchField, JButton searchButton) {
+        deviceSearchIndex = new DeviceSearchIndex(applianceStore);
+
+        // Filtering only; the formatted cost and kWh columns would not sort numerically
+        deviceSorter = new TableRowSorter<>(tableModel);
+        for (int i = 0; i < tableModel.getColumnCount(); i++) {
+            deviceSorter.setSortable(i, false);
+        }
+        devicesTable.setRowSorter(deviceSorter);
+
+        // Wait for a pause in typing before querying the index
+        searchDebounceTimer = new Timer(150, e -> runDeviceSearch(deviceQuery));
+        searchDebounceTimer.setRepeats(false);
+
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { queryChanged(); }
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { queryChanged(); }
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { queryChanged(); }
+
+            private void queryChanged() {
+                deviceQuery = searchField.getText();
+                searchDebounceTimer.restart();
+            }
+        });
+        ActionListener searchNow = e -> {
+            deviceQuery = searchField.getText();
+            searchDebounceTimer.stop();
+            runDeviceSearch(deviceQuery);
+        };
+        searchButton.addActionListener(searchNow);
+        searchField.addActionListener(searchNow);
+
+        // A fixed result set would hide matching devices added later, so re-run the query
+        tableModel.addTableModelListener(e -> {
+            if (!deviceQuery.trim().isEmpty()) {
+                searchDebounceTimer.restart();
+            }
+        });
+    }
+
+    private void runDeviceSearch(String query) {
+        int generation = ++deviceSearchGeneration;
+        new SwingWorker<long[], Void>() {
+            @Override
+            protected long[] doInBackground() {
+                return deviceSearchIndex.search(query);
+            }
+
+            @Override
+            protected void done() {
+                if (generation != deviceSearchGeneration) {
+                    return; // a newer query has been issued
+                }
+                try {
+                    applyDeviceFilter(query, get());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
+    private void applyDeviceFilter(String query, long[] matchingIds) {
+        if (matchingIds == null) {
+            deviceSorter.setRowFilter(null);
+            statusLabel.setText("Showing all devices");
+            return;
+        }
+        ApplianceTable appliances = applianceStore.getApplianceTable();
+        deviceSorter.setRowFilter(new RowFilter<DeviceTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends DeviceTableModel, ? extends Integer> entry) {
+                return DeviceSearchIndex.contains(matchingIds, appliances.getId(entry.getIdentifier()));
+            }
+        });
+        statusLabel.setText(matchingIds.length + " device(s) matching \"" + query.trim() + "\"");
+    }
+
     private void loadApplianceToCalculator(ApplianceData appliance) {
+        ensureCard("calculator");
+
         // Set device type
         String type = appliance.getType();
         for (int i = 0; i < deviceTypeComboBox.getItemCount(); i++) {
@@ -2097,58 +3091,6 @@ public class EnhancedElectricityCalculator extends JFrame {
         calculateAndDisplayResult();
     }
     
-    // Data classes
-    
-    private class ApplianceData {
-        private String name;
-        private String type;
-        private double watts;
-        private double hours;
-        private int efficiency;
-        private double kwh;
-        private double monthlyCost;
-        private Date addedDate;
-        
-        public ApplianceData(String name, String type, double watts, double hours, int efficiency, double kwh, double monthlyCost, Date addedDate) {
-            this.name = name;
-            this.type = type;
-            this.watts = watts;
-            this.hours = hours;
-            this.efficiency = efficiency;
-            this.kwh = kwh;
-            this.monthlyCost = monthlyCost;
-            this.addedDate = addedDate;
-        }
-        
-        public String getName() { return name; }
-        public String getType() { return type; }
-        public double getWatts() { return watts; }
-        public double getHours() { return hours; }
-        public int getEfficiency() { return efficiency; }
-        public double getKwh() { return kwh; }
-        public double getMonthlyCost() { return monthlyCost; }
-        public Date getAddedDate() { return addedDate; }
-    }
-    
-    private class BillHistory {
-        private String month;
-        private double kwh;
-        private double amount;
-        private String date;
-        
-        public BillHistory(String month, double kwh, double amount, String date) {
-            this.month = month;
-            this.kwh = kwh;
-            this.amount = amount;
-            this.date = date;
-        }
-        
-        public String getMonth() { return month; }
-        public double getKwh() { return kwh; }
-        public double getAmount() { return amount; }
-        public String getDate() { return date; }
-    }
-    
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             new EnhancedElectricityCalculator();
@@ -0,0 +1,150 @@
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Icons from {@code resources/icons} on the classpath and images the UI draws itself, each
+ * made once per size and shared by every component that shows it. Every icon holds a
+ * pre-scaled variant for 1x and for the screen's scale, so HiDPI screens paint a sharp
+ * image without scaling it on each repaint.
+ *
+ * <p>{@link #preload} reads and scales the icon files, and should run off the EDT, as it
+ * does behind the splash screen. {@link #icon} never touches the disk; an icon that was not
+ * preloaded, or whose file could not be read, comes back as {@code null}.
+ */
+public class IconCache {
+    private static final String ICON_PATH = "/resources/icons/";
+    private static final IconCache shared = new IconCache(screenScale());
+
+    /** Draws a generated image at {@code size} device pixels. */
+    public interface Painter {
+        void paint(Graphics2D g, int size);
+    }
+
+    private final double[] scales;
+    private final Map<String, BufferedImage> sources = new ConcurrentHashMap<>();
+    private final Map<String, Icon> icons = new ConcurrentHashMap<>();
+
+    public IconCache(double screenScale) {
+        TreeSet<Double> distinct = new TreeSet<>();
+        distinct.add(1.0);
+        distinct.add(screenScale);
+        scales = distinct.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    public static IconCache getShared() {
+        return shared;
+    }
+
+    private static double screenScale() {
+        try {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().getDefaultTransform().getScaleX();
+        } catch (HeadlessException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Reads {@code name}.png for each name and scales it to each {@code size}. A file that
+     * is missing or unreadable is logged and skipped.
+     */
+    public void preload(String[] names, int... sizes) {
+        for (String name : names) {
+            BufferedImage source = sources.get(name);
+            if (source == null) {
+                source = read(name);
+                if (source == null) {
+                    continue;
+                }
+                sources.put(name, source);
+            }
+            for (int size : sizes) {
+                String key = name + "@" + size;
+                if (!icons.containsKey(key)) {
+                    icons.put(key, scaledIcon(source, size));
+                }
+            }
+        }
+    }
+
+    /** The preloaded icon {@code name} at {@code size} pixels, or null if not preloaded. */
+    public Icon icon(String name, int size) {
+        return icons.get(name + "@" + size);
+    }
+
+    /** A generated image at {@code size} pixels, painted the first time it is asked for. */
+    public Icon generated(String name, int size, Painter painter) {
+        return icons.computeIfAbsent("generated:" + name + "@" + size, key -> {
+            Image[] variants = new Image[scales.length];
+            for (int i = 0; i < scales.length; i++) {
+                int pixels = (int) Math.round(size * scales[i]);
+                BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g2d = image.createGraphics();
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                painter.paint(g2d, pixels);
+                g2d.dispose();
+                variants[i] = image;
+            }
+            return toIcon(variants);
+        });
+    }
+
+    private static BufferedImage read(String name) {
+        try (InputStream in = IconCache.class.getResourceAsStream(ICON_PATH + name + ".png")) {
+            if (in == null) {
+                System.out.println("Icon not found on the classpath: " + name);
+                return null;
+            }
+            return ImageIO.read(in);
+        } catch (IOException e) {
+            System.out.println("Could not read icon " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Icon scaledIcon(BufferedImage source, int size) {
+        Image[] variants = new Image[scales.length];
+        for (int i = 0; i < scales.length; i++) {
+            variants[i] = scale(source, (int) Math.round(size * scales[i]));
+        }
+        return toIcon(variants);
+    }
+
+    private static Icon toIcon(Image[] variants) {
+        return new ImageIcon(variants.length == 1 ? variants[0] : new BaseMultiResolutionImage(variants));
+    }
+
+    // Steps down by halves, stopping at the target size; one bicubic pass straight from a
+    // much larger image would skip source pixels and alias
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage image = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(size, width / 2);
+            height = Math.max(size, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = step.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(image, 0, 0, width, height, null);
+            g2d.dispose();
+            image = step;
+        } while (width != size || height != size);
+        return image;
+    }
+}
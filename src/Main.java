@@ -1,22 +1,53 @@
 import javax.swing.*;
-import java.awt.*;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.data.category.DefaultCategoryDataset;
+import billing.DeviceCatalog;
+import billing.DeviceClassifier;
 
 public class Main {
     public static void main(String[] args) {
+        StartupTimer.mark("main");
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             } catch (Exception e) {
                 e.printStackTrace();
             }
-            SplashScreen splash = new SplashScreen(3000);
-            splash.showSplashAndExit(() -> {
-                new EnhancedElectricityCalculator();
+            SplashScreen splash = StartupTimer.time("SplashScreen", SplashScreen::new);
+            splash.showWhile(Main::preload, () -> {
+                StartupTimer.time("frame construction", EnhancedElectricityCalculator::new);
             });
+            StartupTimer.mark("splash shown");
         });
     }
 
+    /**
+     * Loads and initializes what the first frame needs while the splash is up: JFreeChart's
+     * classes, chart theme and fonts, by rendering a throwaway chart off-screen, and the
+     * device data files.
+     */
+    private static void preload() {
+        StartupTimer.time("preload", () -> {
+            preloadCharts();
+            DeviceCatalog.getDefault();
+            DeviceClassifier.getDefault();
+            StartupTimer.mark("device data loaded");
+            EnhancedElectricityCalculator.preloadIcons();
+            StartupTimer.mark("icons loaded");
+            return null;
+        });
+    }
+
+    private static void preloadCharts() {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        dataset.addValue(1, "Usage", "Jan");
+        JFreeChart chart = ChartFactory.createLineChart("", "", "", dataset);
+        chart.createBufferedImage(64, 48);
+        StartupTimer.mark("charts preloaded");
+    }
+
     public void showApplianceSelection() {
         new EnhancedElectricityCalculator();
     }
-}
\ No newline at end of file
+}
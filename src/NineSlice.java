@@ -0,0 +1,133 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A rounded shape, optionally with a drop shadow, rendered once into a small image and
+ * painted at any size by stretching its edges and centre and copying its corners: a
+ * nine-slice. Every part of the shape depends only on the distance to its nearest edge,
+ * so the result matches painting the shape directly, but each repaint is nine image copies
+ * instead of antialiased vector rendering.
+ *
+ * <p>Instances are shared per colour and size through {@link #shadowed} and
+ * {@link #rounded}. The image is rendered for the screen scale of the graphics it is
+ * painted on and re-rendered when that scale changes. Used on the EDT only.
+ */
+public class NineSlice {
+    private static final Map<String, NineSlice> cache = new HashMap<>();
+
+    private final Color fill;
+    private final int arc;
+    private final int shadow;
+    // Logical size of a corner slice; the source image is twice this plus a 1 px middle
+    private final int corner;
+
+    private BufferedImage image;
+    private double imageScale;
+
+    private NineSlice(Color fill, int arc, int shadow) {
+        this.fill = fill;
+        this.arc = arc;
+        this.shadow = shadow;
+        this.corner = shadow + arc + 1;
+    }
+
+    /**
+     * A card background: a {@code fill} round rect that leaves {@code shadow} pixels at the
+     * right and bottom, with a shadow fading over {@code shadow} pixels around it.
+     */
+    public static NineSlice shadowed(Color fill, int arc, int shadow) {
+        return cache.computeIfAbsent(key(fill, arc, shadow), key -> new NineSlice(fill, arc, shadow));
+    }
+
+    /** A plain {@code fill} round rect. */
+    public static NineSlice rounded(Color fill, int arc) {
+        return shadowed(fill, arc, 0);
+    }
+
+    private static String key(Color fill, int arc, int shadow) {
+        return fill.getRGB() + ":" + arc + ":" + shadow;
+    }
+
+    public void paint(Graphics g, int x, int y, int width, int height) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        AffineTransform transform = g2d.getTransform();
+        double scale = transform.getScaleX();
+        int size = 2 * corner + 1;
+        // Too small to slice, or drawn rotated or stretched: paint the shape directly
+        if (width < size || height < size || scale != transform.getScaleY()
+                || transform.getShearX() != 0 || transform.getShearY() != 0) {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            paintShape(g2d, x, y, width, height);
+            g2d.dispose();
+            return;
+        }
+        if (image == null || imageScale != scale) {
+            image = render(g2d.getDeviceConfiguration(), scale);
+            imageScale = scale;
+        }
+
+        // Copy in device pixels so scaled screens get a crisp image
+        double left = transform.getTranslateX() + x * scale;
+        double top = transform.getTranslateY() + y * scale;
+        g2d.setTransform(new AffineTransform());
+        int x0 = (int) Math.round(left);
+        int y0 = (int) Math.round(top);
+        int x3 = (int) Math.round(left + width * scale);
+        int y3 = (int) Math.round(top + height * scale);
+        int c = image.getWidth() / 2;
+        int x1 = x0 + c;
+        int x2 = x3 - c;
+        int y1 = y0 + c;
+        int y2 = y3 - c;
+        int s = image.getWidth();
+
+        g2d.drawImage(image, x0, y0, x1, y1, 0, 0, c, c, null);
+        g2d.drawImage(image, x1, y0, x2, y1, c, 0, c + 1, c, null);
+        g2d.drawImage(image, x2, y0, x3, y1, s - c, 0, s, c, null);
+        g2d.drawImage(image, x0, y1, x1, y2, 0, c, c, c + 1, null);
+        g2d.drawImage(image, x1, y1, x2, y2, c, c, c + 1, c + 1, null);
+        g2d.drawImage(image, x2, y1, x3, y2, s - c, c, s, c + 1, null);
+        g2d.drawImage(image, x0, y2, x1, y3, 0, s - c, c, s, null);
+        g2d.drawImage(image, x1, y2, x2, y3, c, s - c, c + 1, s, null);
+        g2d.drawImage(image, x2, y2, x3, y3, s - c, s - c, s, s, null);
+        g2d.dispose();
+    }
+
+    // Corners of ceil(corner * scale) device pixels around a 1 px middle row and column
+    private BufferedImage render(GraphicsConfiguration configuration, double scale) {
+        int c = (int) Math.ceil(corner * scale);
+        int size = 2 * c + 1;
+        BufferedImage rendered = configuration != null
+                ? configuration.createCompatibleImage(size, size, Transparency.TRANSLUCENT)
+                : new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = rendered.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.scale(scale, scale);
+        paintShape(g2d, 0, 0, size / scale, size / scale);
+        g2d.dispose();
+        return rendered;
+    }
+
+    // Fractional sizes come from scaled screens, where a logical pixel is not a device pixel
+    private void paintShape(Graphics2D g2d, double x, double y, double width, double height) {
+        g2d.setColor(fill);
+        g2d.fill(new RoundRectangle2D.Double(x, y, width - shadow, height - shadow, arc, arc));
+
+        for (int i = 0; i < shadow; i++) {
+            float alpha = 0.1f - (i * 0.02f);
+            if (alpha < 0) alpha = 0;
+
+            g2d.setColor(new Color(0, 0, 0, alpha));
+            g2d.draw(new RoundRectangle2D.Double(x + i, y + i, width - i * 2, height - i * 2, arc, arc));
+        }
+    }
+}
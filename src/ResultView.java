@@ -0,0 +1,243 @@
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import billing.ResultSummary;
+
+/**
+ * Paints the calculator's result straight from a {@link ResultSummary}: the device name,
+ * the monthly cost in a highlighted box, a two-column breakdown and wrapped notes. Text is
+ * drawn from the summary's char buffers, so showing a new result neither builds nor parses
+ * HTML, and the component only asks for a new layout when its height changes.
+ */
+public class ResultView extends JComponent {
+    private static final int PREFERRED_WIDTH = 320;
+    private static final int MAX_LINES = 16;
+    private static final int GAP = 8;
+
+    private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 18);
+    private static final Font CAPTION_FONT = new Font("Segoe UI", Font.PLAIN, 12);
+    private static final Font HEADLINE_FONT = new Font("Segoe UI", Font.BOLD, 24);
+    private static final Font TEXT_FONT = new Font("Segoe UI", Font.PLAIN, 13);
+    private static final Font BOLD_FONT = new Font("Segoe UI", Font.BOLD, 13);
+
+    private static final Color TEXT_COLOR = new Color(52, 73, 94);
+    private static final Color CAPTION_COLOR = new Color(102, 102, 102);
+    private static final Color HEADLINE_COLOR = new Color(41, 128, 185);
+    private static final Color HIGHLIGHT_COLOR = new Color(240, 248, 255);
+    private static final Color WARNING_COLOR = new Color(231, 76, 60);
+    private static final NineSlice HIGHLIGHT_BACKGROUND = NineSlice.rounded(HIGHLIGHT_COLOR, 10);
+
+    private static final String CAPTION = "MONTHLY COST";
+    private static final char[] PROMPT = ("Enter device information and click Calculate to see the estimated "
+            + "electricity cost. You can save frequently used devices for quick access.").toCharArray();
+    private static final char[] WARNING = ("This device has a high energy consumption. Consider an "
+            + "energy-efficient alternative to save up to 30% on electricity costs.").toCharArray();
+
+    private final ResultSummary summary = new ResultSummary();
+    private boolean hasResult;
+    private char[] message = PROMPT;
+    private int messageLength = PROMPT.length;
+
+    // Wrapped line bounds, reused by every layout pass
+    private final int[] lineStarts = new int[MAX_LINES];
+    private final int[] lineEnds = new int[MAX_LINES];
+    private int preferredHeight = -1;
+
+    public ResultView() {
+        setOpaque(false);
+    }
+
+    /** The summary to fill before calling {@link #resultChanged}. */
+    public ResultSummary getSummary() {
+        return summary;
+    }
+
+    /** Shows the summary's current contents. */
+    public void resultChanged() {
+        hasResult = true;
+        contentChanged();
+    }
+
+    /** Replaces the result with a wrapped message, such as the initial prompt. */
+    public void showMessage(String text) {
+        hasResult = false;
+        message = text.toCharArray();
+        messageLength = message.length;
+        contentChanged();
+    }
+
+    public void showPrompt() {
+        hasResult = false;
+        message = PROMPT;
+        messageLength = PROMPT.length;
+        contentChanged();
+    }
+
+    private void contentChanged() {
+        int height = layoutHeight(width());
+        if (height != preferredHeight) {
+            preferredHeight = height;
+            revalidate();
+        }
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        if (preferredHeight < 0) {
+            preferredHeight = layoutHeight(width());
+        }
+        return new Dimension(PREFERRED_WIDTH, preferredHeight);
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+    }
+
+    private int width() {
+        return getWidth() > 0 ? getWidth() : PREFERRED_WIDTH;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        int height = render(g2, getWidth());
+        g2.dispose();
+
+        // Re-wrapping at a new width can change the height
+        if (height != preferredHeight) {
+            preferredHeight = height;
+            revalidate();
+        }
+    }
+
+    private int layoutHeight(int width) {
+        return render(null, width);
+    }
+
+    // Lays out the content at the given width, painting it too when g is not null; returns the height used
+    private int render(Graphics2D g, int width) {
+        int y = 0;
+        if (!hasResult) {
+            return drawParagraph(g, TEXT_FONT, TEXT_COLOR, message, messageLength, width, y);
+        }
+
+        // Device name
+        FontMetrics fm = getFontMetrics(TITLE_FONT);
+        if (g != null) {
+            g.setFont(TITLE_FONT);
+            g.setColor(TEXT_COLOR);
+            String title = summary.getTitle();
+            g.drawString(title, (width - fm.stringWidth(title)) / 2, y + fm.getAscent());
+        }
+        y += fm.getHeight() + GAP;
+
+        // Monthly cost, highlighted
+        FontMetrics captionMetrics = getFontMetrics(CAPTION_FONT);
+        FontMetrics headlineMetrics = getFontMetrics(HEADLINE_FONT);
+        int boxHeight = 10 + captionMetrics.getHeight() + headlineMetrics.getHeight() + 10;
+        if (g != null) {
+            HIGHLIGHT_BACKGROUND.paint(g, 0, y, width, boxHeight);
+            g.setFont(CAPTION_FONT);
+            g.setColor(CAPTION_COLOR);
+            g.drawString(CAPTION, (width - captionMetrics.stringWidth(CAPTION)) / 2, y + 10 + captionMetrics.getAscent());
+            g.setFont(HEADLINE_FONT);
+            g.setColor(HEADLINE_COLOR);
+            int headlineWidth = headlineMetrics.charsWidth(summary.getHeadline(), 0, summary.getHeadlineLength());
+            g.drawChars(summary.getHeadline(), 0, summary.getHeadlineLength(), (width - headlineWidth) / 2,
+                    y + 10 + captionMetrics.getHeight() + headlineMetrics.getAscent());
+        }
+        y += boxHeight + GAP;
+
+        // Breakdown rows: label on the left, value on the right
+        FontMetrics textMetrics = getFontMetrics(TEXT_FONT);
+        FontMetrics boldMetrics = getFontMetrics(BOLD_FONT);
+        for (int row = 0; row < summary.getRowCount(); row++) {
+            boolean bold = summary.isRowBold(row);
+            FontMetrics rowMetrics = bold ? boldMetrics : textMetrics;
+            if (g != null) {
+                g.setFont(bold ? BOLD_FONT : TEXT_FONT);
+                g.setColor(TEXT_COLOR);
+                int baseline = y + rowMetrics.getAscent();
+                g.drawString(summary.getRowLabel(row), 0, baseline);
+                char[] value = summary.getRowValue(row);
+                int length = summary.getRowValueLength(row);
+                g.drawChars(value, 0, length, width - rowMetrics.charsWidth(value, 0, length), baseline);
+            }
+            y += rowMetrics.getHeight() + 2;
+        }
+
+        if (summary.getNoteLength() > 0) {
+            y = drawParagraph(g, TEXT_FONT, TEXT_COLOR, summary.getNote(), summary.getNoteLength(), width, y + GAP);
+        }
+        if (summary.isHighConsumption()) {
+            y = drawParagraph(g, TEXT_FONT, WARNING_COLOR, WARNING, WARNING.length, width, y + GAP);
+        }
+        return y;
+    }
+
+    // Draws centered, word-wrapped text starting at y and returns the y below it
+    private int drawParagraph(Graphics2D g, Font font, Color color, char[] text, int length, int width, int y) {
+        FontMetrics fm = getFontMetrics(font);
+        int lines = wrap(text, length, fm, width);
+        if (g != null) {
+            g.setFont(font);
+            g.setColor(color);
+        }
+        for (int line = 0; line < lines; line++) {
+            if (g != null) {
+                int lineLength = lineEnds[line] - lineStarts[line];
+                int lineWidth = fm.charsWidth(text, lineStarts[line], lineLength);
+                g.drawChars(text, lineStarts[line], lineLength, (width - lineWidth) / 2, y + fm.getAscent());
+            }
+            y += fm.getHeight();
+        }
+        return y;
+    }
+
+    // Greedy word wrap into lineStarts/lineEnds; returns the line count
+    private int wrap(char[] text, int length, FontMetrics fm, int width) {
+        int lines = 0;
+        int start = 0;
+        while (lines < MAX_LINES) {
+            while (start < length && text[start] == ' ') {
+                start++;
+            }
+            if (start >= length) {
+                break;
+            }
+            int end = start;
+            int lastSpace = -1;
+            int lineWidth = 0;
+            while (end < length) {
+                lineWidth += fm.charWidth(text[end]);
+                if (lineWidth > width && end > start) {
+                    break;
+                }
+                if (text[end] == ' ') {
+                    lastSpace = end;
+                }
+                end++;
+            }
+            if (end < length && lastSpace > start) {
+                end = lastSpace;
+            }
+            lineStarts[lines] = start;
+            lineEnds[lines] = end;
+            lines++;
+            start = end;
+        }
+        return lines;
+    }
+}
@@ -2,11 +2,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
+/**
+ * Shown while the application warms up. It stays up exactly as long as the startup work
+ * takes, rather than for a fixed time.
+ */
 public class SplashScreen extends JWindow {
-    private final int duration;
 
-    public SplashScreen(int duration) {
-        this.duration = duration;
+    public SplashScreen() {
         initUI();
     }
 
@@ -17,16 +19,34 @@ public class SplashScreen extends JWindow {
         setLocationRelativeTo(null);
     }
 
-    public void showSplashAndExit(Runnable onCompletion) {
+    /**
+     * Shows the splash while {@code preload} runs on a background thread, then runs
+     * {@code onReady} on the EDT and closes the splash. A failed preload is logged and
+     * startup continues; whatever it did not warm up loads on first use instead.
+     */
+    public void showWhile(Runnable preload, Runnable onReady) {
         setVisible(true);
 
-        // Close splash after duration and launch main application
-        Timer timer = new Timer(duration, e -> {
-            dispose();
-            onCompletion.run(); // Run the completion task (launch main app)
-        });
-        timer.setRepeats(false);
-        timer.start();
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                preload.run();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.out.println("Startup preload failed: " + cause.getMessage());
+                }
+                onReady.run();
+                dispose();
+            }
+        };
+        worker.execute();
     }
 
     private JPanel createContent() {
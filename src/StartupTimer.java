@@ -0,0 +1,131 @@
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Records how long startup takes, from process launch to the first frame the user can
+ * interact with. Run with {@code -Dstartup.timing=true} to print each phase, how long it
+ * took and how many classes had been loaded by its end, once the main window has painted
+ * and the event queue has caught up. Cards built later are printed as they are built.
+ *
+ * <p>{@code -Dstartup.exit=true} exits right after the first frame, for the cold-start
+ * benchmark and for recording a class data sharing archive (see {@code benchmarks/startup}).
+ */
+public class StartupTimer {
+    private static final boolean ENABLED = Boolean.getBoolean("startup.timing");
+    private static final boolean EXIT = Boolean.getBoolean("startup.exit");
+    private static final long MAIN_NANOS = System.nanoTime();
+    private static final List<Phase> phases = new ArrayList<>();
+    // Nesting of timed phases, per thread since the preload runs beside the EDT
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    private static boolean finished;
+
+    private StartupTimer() {
+    }
+
+    private static final class Phase {
+        final String name;
+        final int depth;
+        final long start;
+        final int classesAtStart;
+        long end = -1;
+        int classes;
+
+        Phase(String name, int depth, long start, int classesAtStart) {
+            this.name = name;
+            this.depth = depth;
+            this.start = start;
+            this.classesAtStart = classesAtStart;
+        }
+    }
+
+    /** Records the end of a startup phase. */
+    public static synchronized void mark(String phase) {
+        if (!finished) {
+            Phase mark = new Phase(phase, depth.get()[0], System.nanoTime(), -1);
+            mark.classes = loadedClasses();
+            phases.add(mark);
+        }
+    }
+
+    /** Runs {@code task} as a named phase and returns its result. */
+    public static <T> T time(String phase, Supplier<T> task) {
+        Phase span = begin(phase);
+        try {
+            return task.get();
+        } finally {
+            end(span);
+        }
+    }
+
+    private static synchronized Phase begin(String name) {
+        Phase span = new Phase(name, depth.get()[0]++, System.nanoTime(), loadedClasses());
+        if (!finished) {
+            phases.add(span);
+        }
+        return span;
+    }
+
+    private static synchronized void end(Phase span) {
+        depth.get()[0]--;
+        span.end = System.nanoTime();
+        span.classes = loadedClasses();
+        // Built after the first frame, so report it on its own
+        if (finished && ENABLED) {
+            System.out.printf("Startup timing: %s took %d ms, +%d classes%n", span.name,
+                    (span.end - span.start) / 1_000_000, span.classes - span.classesAtStart);
+        }
+    }
+
+    /** Records that the first frame is interactive and prints the timings when enabled. */
+    public static synchronized void finish() {
+        if (finished) {
+            return;
+        }
+        mark("first frame interactive");
+        finished = true;
+        if (ENABLED) {
+            print();
+        }
+        if (EXIT) {
+            System.exit(0);
+        }
+    }
+
+    private static void print() {
+        long launchMillis = sinceLaunchMillis();
+        System.out.println("Startup timing (ms since main" + (launchMillis >= 0 ? ", +" + launchMillis + " before main" : "") + "):");
+        System.out.printf("  %-36s %6s %6s %8s%n", "phase", "at", "took", "classes");
+        for (Phase phase : phases) {
+            boolean span = phase.end >= 0;
+            long at = span ? phase.end : phase.start;
+            String name = "  ".repeat(phase.depth) + phase.name;
+            System.out.printf("  %-36s %6d %6s %8d%n", name, (at - MAIN_NANOS) / 1_000_000,
+                    span ? String.valueOf((phase.end - phase.start) / 1_000_000) : "", phase.classes);
+        }
+        if (launchMillis >= 0) {
+            long firstFrame = phases.get(phases.size() - 1).start;
+            System.out.println("Time to first frame: " + (launchMillis + (firstFrame - MAIN_NANOS) / 1_000_000)
+                    + " ms since launch");
+        }
+    }
+
+    /** Milliseconds since main started. */
+    public static long elapsedMillis() {
+        return (System.nanoTime() - MAIN_NANOS) / 1_000_000;
+    }
+
+    // Only counted when printing; the management classes would otherwise load for nothing
+    private static int loadedClasses() {
+        return ENABLED ? ManagementFactory.getClassLoadingMXBean().getLoadedClassCount() : 0;
+    }
+
+    // JVM launch to main, or -1 when the OS does not report the process start
+    private static long sinceLaunchMillis() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Instant.now().toEpochMilli() - elapsedMillis() - start.toEpochMilli())
+                .orElse(-1L);
+    }
+}
@@ -0,0 +1,34 @@
+package billing;
+
+import java.util.Date;
+
+public class ApplianceData {
+    private String name;
+    private String type;
+    private double watts;
+    private double hours;
+    private int efficiency;
+    private double kwh;
+    private double monthlyCost;
+    private Date addedDate;
+
+    public ApplianceData(String name, String type, double watts, double hours, int efficiency, double kwh, double monthlyCost, Date addedDate) {
+        this.name = name;
+        this.type = type;
+        this.watts = watts;
+        this.hours = hours;
+        this.efficiency = efficiency;
+        this.kwh = kwh;
+        this.monthlyCost = monthlyCost;
+        this.addedDate = addedDate;
+    }
+
+    public String getName() { return name; }
+    public String getType() { return type; }
+    public double getWatts() { return watts; }
+    public double getHours() { return hours; }
+    public int getEfficiency() { return efficiency; }
+    public double getKwh() { return kwh; }
+    public double getMonthlyCost() { return monthlyCost; }
+    public Date getAddedDate() { return addedDate; }
+}
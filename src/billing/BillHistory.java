@@ -0,0 +1,20 @@
+package billing;
+
+public class BillHistory {
+    private String month;
+    private double kwh;
+    private double amount;
+    private String date;
+
+    public BillHistory(String month, double kwh, double amount, String date) {
+        this.month = month;
+        this.kwh = kwh;
+        this.amount = amount;
+        this.date = date;
+    }
+
+    public String getMonth() { return month; }
+    public double getKwh() { return kwh; }
+    public double getAmount() { return amount; }
+    public String getDate() { return date; }
+}
@@ -0,0 +1,126 @@
+package billing;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Monthly kWh and cost math for appliances. Has no Swing or AWT dependency,
+ * so it can bill large batches on a headless server.
+ */
+public class BillingEngine {
+    public static final int DAYS_PER_MONTH = 30;
+
+    // Default slab tariff, matching the rates shown in the calculator
+    public static final double[] DEFAULT_KWH_TIERS = {50, 100, 200, 300, 700, Double.MAX_VALUE};
+    public static final double[] DEFAULT_UNIT_PRICES = {4.81, 7.87, 10.54, 12.89, 21.88, 24.93};
+
+    // Replaced whole when a new schedule is published; readers never lock
+    private final AtomicReference<CompiledTariff> tariff;
+
+    public BillingEngine() {
+        this(TariffSchedule.defaultSchedule());
+    }
+
+    public BillingEngine(double[] kwhTiers, double[] unitPrices) {
+        this(new TariffSchedule(1, LocalDate.now(), kwhTiers, unitPrices, TariffEvaluator.Mode.SINGLE_SLAB,
+                Collections.emptyList(), null, 0));
+    }
+
+    public BillingEngine(TariffSchedule schedule) {
+        this.tariff = new AtomicReference<>(schedule.compile());
+    }
+
+    /** Slab tariff for the current month under the schedule in force. */
+    public TariffEvaluator getTariff() {
+        return tariff.get().forMonth(LocalDate.now().getMonthValue());
+    }
+
+    /**
+     * The compiled schedule in force. Callers billing many items should read this once and
+     * use it throughout, so every item is billed under the same version.
+     */
+    public CompiledTariff getCompiledTariff() {
+        return tariff.get();
+    }
+
+    public TariffSchedule getSchedule() {
+        return tariff.get().getSchedule();
+    }
+
+    /**
+     * Compiles {@code schedule} and makes it the tariff in force. Bills already in progress
+     * finish under the tariff they started with.
+     *
+     * @throws IllegalArgumentException if the schedule is invalid or not newer than the current one
+     */
+    public CompiledTariff publish(TariffSchedule schedule) {
+        CompiledTariff compiled = schedule.compile();
+        while (true) {
+            CompiledTariff current = tariff.get();
+            if (schedule.getVersion() <= current.getVersion()) {
+                throw new IllegalArgumentException("Tariff version " + schedule.getVersion()
+                        + " is not newer than version " + current.getVersion());
+            }
+            if (tariff.compareAndSet(current, compiled)) {
+                return compiled;
+            }
+        }
+    }
+
+    public double effectiveWatts(double watts, int efficiencyPercent) {
+        return watts * (efficiencyPercent / 100.0);
+    }
+
+    public double monthlyKwh(double watts, double hours, int efficiencyPercent) {
+        return ((effectiveWatts(watts, efficiencyPercent) * hours) * DAYS_PER_MONTH) / 1000;
+    }
+
+    public double findUnitPrice(double kwh) {
+        return getTariff().unitPrice(kwh);
+    }
+
+    public BillingResult bill(double watts, double hours, int efficiencyPercent) {
+        return bill(getTariff(), watts, hours, efficiencyPercent);
+    }
+
+    private BillingResult bill(TariffEvaluator tariff, double watts, double hours, int efficiencyPercent) {
+        double effectiveWatts = effectiveWatts(watts, efficiencyPercent);
+        double kwh = ((effectiveWatts * hours) * DAYS_PER_MONTH) / 1000;
+        double monthlyCost = tariff.cost(kwh);
+        return new BillingResult(effectiveWatts, kwh, tariff.unitPrice(kwh),
+                monthlyCost / DAYS_PER_MONTH, monthlyCost);
+    }
+
+    /**
+     * Bills every appliance and returns a new record per input, in the same order,
+     * with kWh and monthly cost filled in.
+     */
+    public List<ApplianceData> billAll(List<ApplianceData> appliances) {
+        TariffEvaluator tariff = getTariff();
+        List<ApplianceData> billed = new ArrayList<>(appliances.size());
+        for (ApplianceData appliance : appliances) {
+            BillingResult result = bill(tariff, appliance.getWatts(), appliance.getHours(), appliance.getEfficiency());
+            billed.add(new ApplianceData(appliance.getName(), appliance.getType(), appliance.getWatts(),
+                    appliance.getHours(), appliance.getEfficiency(), result.getKwh(),
+                    result.getMonthlyCost(), appliance.getAddedDate()));
+        }
+        return billed;
+    }
+
+    /**
+     * Allocation-free batch form: bills rows {@code [0, count)} of the input arrays
+     * and writes monthly kWh and cost into the output arrays.
+     */
+    public void billAll(int count, double[] watts, double[] hours, int[] efficiency,
+                        double[] kwhOut, double[] costOut) {
+        TariffEvaluator tariff = getTariff();
+        for (int i = 0; i < count; i++) {
+            double kwh = ((watts[i] * (efficiency[i] / 100.0) * hours[i]) * DAYS_PER_MONTH) / 1000;
+            kwhOut[i] = kwh;
+            costOut[i] = tariff.cost(kwh);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package billing;
+
+public class BillingResult {
+    private final double effectiveWatts;
+    private final double kwh;
+    private final double unitPrice;
+    private final double dailyCost;
+    private final double monthlyCost;
+
+    public BillingResult(double effectiveWatts, double kwh, double unitPrice, double dailyCost, double monthlyCost) {
+        this.effectiveWatts = effectiveWatts;
+        this.kwh = kwh;
+        this.unitPrice = unitPrice;
+        this.dailyCost = dailyCost;
+        this.monthlyCost = monthlyCost;
+    }
+
+    public double getEffectiveWatts() { return effectiveWatts; }
+    public double getKwh() { return kwh; }
+    public double getUnitPrice() { return unitPrice; }
+    public double getDailyCost() { return dailyCost; }
+    public double getMonthlyCost() { return monthlyCost; }
+    public double getAnnualCost() { return monthlyCost * 12; }
+}
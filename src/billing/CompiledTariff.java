@@ -0,0 +1,84 @@
+package billing;
+
+/**
+ * A {@link TariffSchedule} flattened into lookup tables: a slab evaluator per calendar month
+ * and a price factor per hour of day. Instances are immutable and safe to share between
+ * threads, so the engine can publish a new one without locking and a bill in progress
+ * keeps using the tables it started with.
+ */
+public class CompiledTariff {
+    private final TariffSchedule schedule;
+    // Indexed by month 1-12; months in the same season share one evaluator
+    private final TariffEvaluator[] byMonth = new TariffEvaluator[13];
+    private final double[] hourFactors = new double[24];
+    private final double fixedMonthlyCharge;
+
+    CompiledTariff(TariffSchedule schedule) {
+        this.schedule = schedule;
+        this.fixedMonthlyCharge = schedule.getFixedMonthlyCharge();
+
+        double[] kwhTiers = schedule.getKwhTiers();
+        TariffEvaluator base = new TariffEvaluator(kwhTiers, schedule.getUnitPrices(), schedule.getMode());
+        TariffEvaluator[] seasonal = new TariffEvaluator[schedule.getSeasons().size()];
+        for (int i = 0; i < seasonal.length; i++) {
+            seasonal[i] = new TariffEvaluator(kwhTiers, schedule.getSeasons().get(i).getUnitPrices(),
+                    schedule.getMode());
+        }
+        for (int month = 1; month <= 12; month++) {
+            byMonth[month] = base;
+            for (int i = 0; i < seasonal.length; i++) {
+                if (schedule.getSeasons().get(i).contains(month)) {
+                    byMonth[month] = seasonal[i];
+                    break;
+                }
+            }
+        }
+
+        TariffSchedule.TimeOfUse timeOfUse = schedule.getTimeOfUse();
+        for (int hour = 0; hour < 24; hour++) {
+            hourFactors[hour] = timeOfUse == null ? 1
+                    : timeOfUse.isPeak(hour) ? timeOfUse.getPeakFactor() : timeOfUse.getOffPeakFactor();
+        }
+    }
+
+    public TariffSchedule getSchedule() {
+        return schedule;
+    }
+
+    public int getVersion() {
+        return schedule.getVersion();
+    }
+
+    /** Slab tariff in force for {@code month} (1-12). */
+    public TariffEvaluator forMonth(int month) {
+        return byMonth[month];
+    }
+
+    /** Price factor for energy used during {@code hour} (0-23); 1 without time-of-use. */
+    public double hourFactor(int hour) {
+        return hourFactors[hour];
+    }
+
+    public double getFixedMonthlyCharge() {
+        return fixedMonthlyCharge;
+    }
+
+    /**
+     * Energy cost of a month's metered use, given kWh per hour of day. The month's slab
+     * cost for the total is scaled by the usage-weighted time-of-use factor, so shifting
+     * use off-peak lowers the bill without moving it to a different slab. Excludes the
+     * fixed charge.
+     */
+    public double meteredCost(int month, double[] kwhByHour) {
+        double total = 0;
+        double weighted = 0;
+        for (int hour = 0; hour < 24; hour++) {
+            total += kwhByHour[hour];
+            weighted += kwhByHour[hour] * hourFactors[hour];
+        }
+        if (total <= 0) {
+            return 0;
+        }
+        return byMonth[month].cost(total) * (weighted / total);
+    }
+}
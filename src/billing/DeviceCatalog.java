@@ -0,0 +1,218 @@
+package billing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typical ratings and usage for known devices, read once from {@code device-profiles.txt}.
+ *
+ * <p>Profiles are indexed by key and by name in an open-addressing table that is built at
+ * load time and never changes, so lookups are a hash and a probe or two, ignore case
+ * without allocating and need no locking. The catalog has no Swing dependency; the
+ * calculator fills its fields from it and the importer completes partial rows with it.
+ */
+public class DeviceCatalog {
+    private static final String RESOURCE = "device-profiles.txt";
+
+    /** Typical figures for one kind of device. */
+    public static class DeviceProfile {
+        private final String key;
+        private final String type;
+        private final String name;
+        private final double watts;
+        private final double hoursPerDay;
+        private final int dutyCycle;
+        private final int[] monthlyDutyCycle;
+
+        DeviceProfile(String key, String type, String name, double watts, double hoursPerDay, int dutyCycle,
+                      int[] monthlyDutyCycle) {
+            this.key = key;
+            this.type = type;
+            this.name = name;
+            this.watts = watts;
+            this.hoursPerDay = hoursPerDay;
+            this.dutyCycle = dutyCycle;
+            this.monthlyDutyCycle = monthlyDutyCycle;
+        }
+
+        public String getKey() { return key; }
+        public String getType() { return type; }
+        public String getName() { return name; }
+        public double getWatts() { return watts; }
+        public double getHoursPerDay() { return hoursPerDay; }
+        public int getDutyCycle() { return dutyCycle; }
+
+        /** Duty cycle percent in {@code month} (1-12), from the monthly curve when there is one. */
+        public int getDutyCycle(int month) {
+            return monthlyDutyCycle == null ? dutyCycle : monthlyDutyCycle[month - 1];
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class DefaultHolder {
+        static final DeviceCatalog INSTANCE = loadDefault();
+    }
+
+    private final List<DeviceProfile> profiles;
+    private final Map<String, List<DeviceProfile>> byType;
+    // Open addressing over keys and names; slots hold profile index + 1, 0 is empty
+    private final int[] slots;
+    private final String[] slotKeys;
+
+    private DeviceCatalog(List<DeviceProfile> profiles) {
+        this.profiles = Collections.unmodifiableList(new ArrayList<>(profiles));
+
+        Map<String, List<DeviceProfile>> types = new LinkedHashMap<>();
+        for (DeviceProfile profile : profiles) {
+            types.computeIfAbsent(profile.type, type -> new ArrayList<>()).add(profile);
+        }
+        for (Map.Entry<String, List<DeviceProfile>> entry : types.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.byType = Collections.unmodifiableMap(types);
+
+        // Two entries per profile at a load factor of at most one half
+        int capacity = Integer.highestOneBit(Math.max(4, profiles.size() * 4 - 1)) << 1;
+        slots = new int[capacity];
+        slotKeys = new String[capacity];
+        for (int i = 0; i < profiles.size(); i++) {
+            insert(profiles.get(i).key, i);
+            if (!profiles.get(i).name.equalsIgnoreCase(profiles.get(i).key)) {
+                insert(profiles.get(i).name, i);
+            }
+        }
+    }
+
+    /** The catalog read from the bundled {@code device-profiles.txt}. */
+    public static DeviceCatalog getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static DeviceCatalog loadDefault() {
+        InputStream in = DeviceCatalog.class.getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException(RESOURCE + " is missing from the classpath");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads profiles, one {@code key | type | name | watts | hours | duty [| 12 monthly duties]}
+     * line each, with {@code #} comments.
+     */
+    public static DeviceCatalog load(Reader reader) throws IOException {
+        List<DeviceProfile> profiles = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\|");
+            if (fields.length != 6 && fields.length != 7) {
+                throw new IOException("Line " + lineNumber + ": expected 6 or 7 fields separated by |");
+            }
+            try {
+                int[] monthly = null;
+                if (fields.length == 7) {
+                    String[] values = fields[6].split(",");
+                    if (values.length != 12) {
+                        throw new IOException("Line " + lineNumber + ": monthly duty cycle needs 12 values");
+                    }
+                    monthly = new int[12];
+                    for (int m = 0; m < 12; m++) {
+                        monthly[m] = Integer.parseInt(values[m].trim());
+                    }
+                }
+                profiles.add(new DeviceProfile(fields[0].trim(), fields[1].trim(), fields[2].trim(),
+                        Double.parseDouble(fields[3].trim()), Double.parseDouble(fields[4].trim()),
+                        Integer.parseInt(fields[5].trim()), monthly));
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": invalid number", e);
+            }
+        }
+        return new DeviceCatalog(profiles);
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    public List<DeviceProfile> getProfiles() {
+        return profiles;
+    }
+
+    /** Device types in file order. */
+    public List<String> getTypes() {
+        return new ArrayList<>(byType.keySet());
+    }
+
+    /** Profiles of one type, typical device first; empty for an unknown type. */
+    public List<DeviceProfile> profilesOfType(String type) {
+        List<DeviceProfile> ofType = byType.get(type);
+        return ofType == null ? Collections.emptyList() : ofType;
+    }
+
+    /** The typical device of {@code type}, or {@code null}. */
+    public DeviceProfile typical(String type) {
+        List<DeviceProfile> ofType = byType.get(type);
+        return ofType == null ? null : ofType.get(0);
+    }
+
+    /** The profile whose key or name is {@code keyOrName}, ignoring case, or {@code null}. */
+    public DeviceProfile find(String keyOrName) {
+        if (keyOrName == null) {
+            return null;
+        }
+        int mask = slots.length - 1;
+        for (int slot = hash(keyOrName) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (slotKeys[slot].equalsIgnoreCase(keyOrName)) {
+                return profiles.get(slots[slot] - 1);
+            }
+        }
+        return null;
+    }
+
+    private void insert(String key, int index) {
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0) {
+            if (slotKeys[slot].equalsIgnoreCase(key)) {
+                throw new IllegalArgumentException("Duplicate device profile: " + key);
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+        slotKeys[slot] = key;
+    }
+
+    // Case-insensitive string hash, spread so that linear probing stays short
+    private static int hash(String text) {
+        int h = 0;
+        for (int i = 0; i < text.length(); i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,294 @@
+package billing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classifies devices by the keywords in their names and rates them against per-class watt
+ * thresholds, both read from {@code device-classes.txt}.
+ *
+ * <p>All keywords are compiled into one Aho-Corasick automaton, so a name is scanned once
+ * whatever the number of keywords, lower-casing character by character without allocating.
+ * Keywords only count as whole words, so "Vacuum" is not an air conditioner, and the match
+ * ending last wins, so "Fan Heater" is a heater. Names are cached once classified; the
+ * thresholds are a comparison, so ratings for any wattage come from the same entry.
+ *
+ * <p>Instances are immutable apart from the cache and safe to share between threads.
+ */
+public class DeviceClassifier {
+    private static final String RESOURCE = "device-classes.txt";
+    private static final String DEFAULT_CLASS = "default";
+    // Stop caching past this many names so a huge import cannot pin them all in memory
+    private static final int CACHE_LIMIT = 100_000;
+
+    /** A class of devices and the wattages that rate as high or medium efficiency. */
+    public static class DeviceClass {
+        private final String name;
+        private final double highBelow;
+        private final double mediumBelow;
+
+        DeviceClass(String name, double highBelow, double mediumBelow) {
+            this.name = name;
+            this.highBelow = highBelow;
+            this.mediumBelow = mediumBelow;
+        }
+
+        public String getName() { return name; }
+        public double getHighBelow() { return highBelow; }
+        public double getMediumBelow() { return mediumBelow; }
+
+        public DeviceEfficiency rate(double watts) {
+            if (watts < highBelow) return DeviceEfficiency.HIGH;
+            else if (watts < mediumBelow) return DeviceEfficiency.MEDIUM;
+            else return DeviceEfficiency.LOW;
+        }
+    }
+
+    private static class DefaultHolder {
+        static final DeviceClassifier INSTANCE = loadDefault();
+    }
+
+    private final List<DeviceClass> classes;
+    private final DeviceClass defaultClass;
+
+    // Automaton: symbol 0 stands for every character that appears in no keyword
+    private final int[] symbols = new int[128];
+    private final int[][] next;
+    // Keyword ending at each state (-1 for none), and the next state down the failure chain with one
+    private final int[] keywordAt;
+    private final int[] outputLink;
+    private final int[] keywordLength;
+    private final DeviceClass[] keywordClass;
+
+    private final Map<String, DeviceClass> cache = new ConcurrentHashMap<>();
+
+    private DeviceClassifier(List<DeviceClass> classes, DeviceClass defaultClass,
+                             List<String> keywords, List<DeviceClass> keywordClasses) {
+        this.classes = Collections.unmodifiableList(new ArrayList<>(classes));
+        this.defaultClass = defaultClass;
+
+        int alphabet = 1;
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (c >= 128) {
+                    throw new IllegalArgumentException("Keywords must be ASCII: " + keyword);
+                }
+                if (symbols[c] == 0) {
+                    symbols[c] = alphabet++;
+                }
+            }
+        }
+
+        // Trie of every keyword
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(new int[alphabet]);
+        terminal.add(-1);
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = symbols[keyword.charAt(i)];
+                if (trie.get(state)[symbol] == 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(new int[alphabet]);
+                    terminal.add(-1);
+                }
+                state = trie.get(state)[symbol];
+            }
+            terminal.set(state, k);
+        }
+
+        int states = trie.size();
+        next = trie.toArray(new int[0][]);
+        keywordAt = new int[states];
+        outputLink = new int[states];
+        for (int state = 0; state < states; state++) {
+            keywordAt[state] = terminal.get(state);
+        }
+        keywordLength = new int[keywords.size()];
+        keywordClass = keywordClasses.toArray(new DeviceClass[0]);
+        for (int k = 0; k < keywords.size(); k++) {
+            keywordLength[k] = keywords.get(k).length();
+        }
+
+        // Breadth-first pass filling failure transitions, turning the trie into a DFA
+        int[] failure = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 1; symbol < alphabet; symbol++) {
+            if (next[0][symbol] != 0) {
+                queue.add(next[0][symbol]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int fail = failure[state];
+            outputLink[state] = keywordAt[fail] >= 0 ? fail : outputLink[fail];
+            for (int symbol = 1; symbol < alphabet; symbol++) {
+                int child = next[state][symbol];
+                if (child != 0) {
+                    failure[child] = next[fail][symbol];
+                    queue.add(child);
+                } else {
+                    next[state][symbol] = next[fail][symbol];
+                }
+            }
+        }
+    }
+
+    /** The classifier built from the bundled {@code device-classes.txt}. */
+    public static DeviceClassifier getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static DeviceClassifier loadDefault() {
+        InputStream in = DeviceClassifier.class.getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException(RESOURCE + " is missing from the classpath");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a class table: one {@code class | keyword, keyword | high below | medium below}
+     * line per class, with {@code #} comments. A class named {@code default} rates devices
+     * no keyword matches.
+     */
+    public static DeviceClassifier load(Reader reader) throws IOException {
+        List<DeviceClass> classes = new ArrayList<>();
+        List<String> keywords = new ArrayList<>();
+        List<DeviceClass> keywordClasses = new ArrayList<>();
+        DeviceClass defaultClass = null;
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\|", -1);
+            if (fields.length != 4) {
+                throw new IOException("Line " + lineNumber + ": expected 4 fields separated by |");
+            }
+            DeviceClass deviceClass;
+            try {
+                deviceClass = new DeviceClass(fields[0].trim(), Double.parseDouble(fields[2].trim()),
+                        Double.parseDouble(fields[3].trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": invalid watt threshold", e);
+            }
+            if (deviceClass.name.equals(DEFAULT_CLASS)) {
+                defaultClass = deviceClass;
+                continue;
+            }
+            classes.add(deviceClass);
+            for (String keyword : fields[1].split(",")) {
+                keyword = keyword.trim().toLowerCase(Locale.ROOT);
+                if (!keyword.isEmpty()) {
+                    keywords.add(keyword);
+                    keywordClasses.add(deviceClass);
+                }
+            }
+        }
+        if (defaultClass == null) {
+            throw new IOException("No default class");
+        }
+        return new DeviceClassifier(classes, defaultClass, keywords, keywordClasses);
+    }
+
+    public List<DeviceClass> getClasses() {
+        return classes;
+    }
+
+    public DeviceClass getDefaultClass() {
+        return defaultClass;
+    }
+
+    public DeviceEfficiency rate(String deviceName, double watts) {
+        return classify(deviceName).rate(watts);
+    }
+
+    /**
+     * Rates rows {@code [0, count)} of the input arrays into {@code out}; repeated names
+     * are classified once.
+     */
+    public void rateAll(int count, String[] names, double[] watts, DeviceEfficiency[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = classify(names[i]).rate(watts[i]);
+        }
+    }
+
+    /** The class of {@code deviceName}, or the default class when no keyword matches. */
+    public DeviceClass classify(String deviceName) {
+        DeviceClass cached = cache.get(deviceName);
+        if (cached != null) {
+            return cached;
+        }
+        DeviceClass deviceClass = scan(deviceName);
+        if (cache.size() < CACHE_LIMIT) {
+            cache.put(deviceName, deviceClass);
+        }
+        return deviceClass;
+    }
+
+    private DeviceClass scan(String name) {
+        DeviceClass best = defaultClass;
+        int bestEnd = -1;
+        int bestLength = 0;
+        int state = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            state = next[state][c < 128 ? symbols[c] : 0];
+            for (int match = keywordAt[state] >= 0 ? state : outputLink[state]; match != 0; match = outputLink[match]) {
+                int keyword = keywordAt[match];
+                int length = keywordLength[keyword];
+                int start = i + 1 - length;
+                if (start > 0 && Character.isLetterOrDigit(name.charAt(start - 1))) {
+                    continue;
+                }
+                int end = wordEnd(name, i + 1);
+                if (end < 0) {
+                    continue;
+                }
+                if (end > bestEnd || (end == bestEnd && length > bestLength)) {
+                    best = keywordClass[keyword];
+                    bestEnd = end;
+                    bestLength = length;
+                }
+            }
+        }
+        return best;
+    }
+
+    // End of the word if a match ending before index end is a whole word, allowing a plural s; else -1
+    private static int wordEnd(String name, int end) {
+        if (end == name.length() || !Character.isLetterOrDigit(name.charAt(end))) {
+            return end;
+        }
+        char c = name.charAt(end);
+        if ((c == 's' || c == 'S') && (end + 1 == name.length() || !Character.isLetterOrDigit(name.charAt(end + 1)))) {
+            return end + 1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,10 @@
+package billing;
+
+public enum DeviceEfficiency {
+    HIGH, MEDIUM, LOW;
+
+    /** Rates a device by its name and power draw; see {@link DeviceClassifier}. */
+    public static DeviceEfficiency of(String deviceName, double watts) {
+        return DeviceClassifier.getDefault().rate(deviceName, watts);
+    }
+}
@@ -0,0 +1,140 @@
+package billing;
+
+import java.text.DecimalFormat;
+
+/**
+ * Formats numbers with a fixed number of decimals and thousands separators, the way
+ * {@code DecimalFormat("#,##0.00")} or {@code "#,##0.##"} does, but writing straight into a
+ * caller's char buffer. Instances hold no mutable state, so the shared constants can be
+ * used from any thread, and formatting into a buffer allocates nothing.
+ *
+ * <p>Values are rounded half-even on the exact value of the double, which is what
+ * {@code DecimalFormat} does while doubles are finer than the last digit: 0.065 is stored
+ * slightly above 0.065 and becomes 0.07, while 1.595 is stored slightly below and becomes
+ * 1.59. Past that point (2^46 for two decimals) {@code DecimalFormat} rounds the shortest
+ * decimal form instead, so those rare values are handed to it and do allocate. Magnitudes
+ * beyond 1e15, NaN and infinities are written with {@link Double#toString}.
+ */
+public class FixedPointFormat {
+    private static final double LIMIT = 1e15;
+    private static final long[] SCALES = {1, 10, 100, 1000, 10000};
+
+    /** Money: two decimals, {@code 1,234.50}. */
+    public static final FixedPointFormat MONEY = new FixedPointFormat(2, false);
+    /** Energy: up to two decimals, {@code 1,234.5}. */
+    public static final FixedPointFormat KWH = new FixedPointFormat(2, true);
+    /** Whole numbers, {@code 1,235}. */
+    public static final FixedPointFormat WHOLE = new FixedPointFormat(0, false);
+
+    /** Longest output of any value below the fixed-point limit. */
+    public static final int MAX_LENGTH = 32;
+
+    private final int decimals;
+    private final boolean trimZeros;
+    // Below this, the gap between doubles is at most one unit of the last digit
+    private final double exactLimit;
+    private final String pattern;
+
+    /**
+     * @param decimals   digits after the point, 0-4
+     * @param trimZeros  drop trailing zeros of the fraction, and the point if none remain
+     */
+    public FixedPointFormat(int decimals, boolean trimZeros) {
+        if (decimals < 0 || decimals >= SCALES.length) {
+            throw new IllegalArgumentException("decimals must be between 0 and " + (SCALES.length - 1));
+        }
+        this.decimals = decimals;
+        this.trimZeros = trimZeros;
+        int scaleBits = 64 - Long.numberOfLeadingZeros(SCALES[decimals] - 1);
+        this.exactLimit = Math.min(LIMIT, Math.scalb(1.0, 53 - scaleBits));
+        this.pattern = decimals == 0 ? "#,##0" : "#,##0." + (trimZeros ? "#" : "0").repeat(decimals);
+    }
+
+    /**
+     * Writes {@code value} into {@code buffer} at {@code offset}, which needs room for
+     * {@link #MAX_LENGTH} chars, and returns the number of chars written.
+     */
+    public int format(double value, char[] buffer, int offset) {
+        if (Double.isNaN(value) || Math.abs(value) >= LIMIT) {
+            String text = Double.toString(value);
+            text.getChars(0, text.length(), buffer, offset);
+            return text.length();
+        }
+        if (Math.abs(value) >= exactLimit) {
+            String text = new DecimalFormat(pattern).format(value);
+            text.getChars(0, text.length(), buffer, offset);
+            return text.length();
+        }
+
+        int pos = offset;
+        double magnitude = Math.abs(value);
+        // Split before scaling, so the fraction is exact. Its scaled product may round, so the
+        // digits and the rounding direction come from fma, whose single rounding keeps the
+        // sign of the exact difference and gives zero only when it is exactly zero
+        long whole = (long) magnitude;
+        double exactFraction = magnitude - whole;
+        long scale = SCALES[decimals];
+        long fraction = (long) (exactFraction * scale);
+        if (Math.fma(exactFraction, scale, -fraction) < 0) {
+            fraction--;
+        }
+        double aboveHalf = Math.fma(exactFraction, scale, -(fraction + 0.5));
+        long lastDigit = decimals == 0 ? whole : fraction;
+        if (aboveHalf > 0 || (aboveHalf == 0 && (lastDigit & 1) != 0)) {
+            fraction++;
+        }
+        if (fraction == SCALES[decimals]) {
+            whole++;
+            fraction = 0;
+        }
+        // Values that round to zero get no sign
+        if (value < 0 && (whole | fraction) != 0) {
+            buffer[pos++] = '-';
+        }
+
+        // Integer part with a comma every three digits, written back to front
+        int digits = 1;
+        for (long rest = whole / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = pos + digits + (digits - 1) / 3;
+        int write = end;
+        int written = 0;
+        do {
+            if (written > 0 && written % 3 == 0) {
+                buffer[--write] = ',';
+            }
+            buffer[--write] = (char) ('0' + whole % 10);
+            whole /= 10;
+            written++;
+        } while (whole > 0);
+        pos = end;
+
+        int fractionDigits = decimals;
+        if (trimZeros) {
+            while (fractionDigits > 0 && fraction % 10 == 0) {
+                fraction /= 10;
+                fractionDigits--;
+            }
+        }
+        if (fractionDigits > 0) {
+            buffer[pos++] = '.';
+            for (int i = fractionDigits - 1; i >= 0; i--) {
+                buffer[pos + i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            pos += fractionDigits;
+        }
+        return pos - offset;
+    }
+
+    public String format(double value) {
+        char[] buffer = new char[MAX_LENGTH];
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+
+    public StringBuilder append(StringBuilder text, double value) {
+        char[] buffer = new char[MAX_LENGTH];
+        return text.append(buffer, 0, format(value, buffer, 0));
+    }
+}
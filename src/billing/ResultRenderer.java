@@ -0,0 +1,63 @@
+package billing;
+
+/**
+ * Fills the summary shown in the calculator's result panel. Figures are formatted with
+ * the shared {@link FixedPointFormat}s straight into the summary's buffers, so repeated
+ * calculations reuse the same memory.
+ */
+public class ResultRenderer {
+    private static final String NOTE_PREFIX = "This device represents approximately ";
+    private static final String NOTE_SUFFIX = "% of an average monthly electricity bill.";
+
+    private ResultRenderer() {
+    }
+
+    public static void render(String deviceName, double watts, double hours, int efficiencyPercent,
+                              BillingResult result, double averageMonthlyBill, ResultSummary summary) {
+        FixedPointFormat money = FixedPointFormat.MONEY;
+        FixedPointFormat kwh = FixedPointFormat.KWH;
+
+        summary.clear();
+        summary.title = deviceName;
+        summary.headlineLength = write(summary.headline, 0, "₨", result.getMonthlyCost(), money, "");
+
+        row(summary, "Power Rating:", "", watts, kwh, " watts", false);
+        // Efficiency adjusted
+        if (efficiencyPercent < 100) {
+            row(summary, "Effective Power:", "", result.getEffectiveWatts(), money, " watts", false);
+        }
+        row(summary, "Daily Usage:", "", hours, kwh, " hours", false);
+        row(summary, "Energy Used:", "", result.getKwh(), kwh, " kWh/month", false);
+        row(summary, "Rate Applied:", "Rs", result.getUnitPrice(), money, "/kWh", false);
+        row(summary, "Daily Cost:", "Rs", result.getDailyCost(), money, "", false);
+        row(summary, "Monthly Cost:", "Rs", result.getMonthlyCost(), money, "", true);
+        row(summary, "Annual Cost:", "Rs", result.getAnnualCost(), money, "", false);
+
+        // Share of a typical bill, to visualize impact
+        if (averageMonthlyBill > 0) {
+            summary.noteLength = write(summary.note, 0, NOTE_PREFIX,
+                    (result.getMonthlyCost() / averageMonthlyBill) * 100, money, NOTE_SUFFIX);
+        }
+
+        // Energy saving suggestion if applicable
+        summary.highConsumption = DeviceEfficiency.of(deviceName, watts) == DeviceEfficiency.LOW;
+    }
+
+    private static void row(ResultSummary summary, String label, String prefix, double value,
+                            FixedPointFormat format, String suffix, boolean bold) {
+        int row = summary.rowCount++;
+        summary.rowLabels[row] = label;
+        summary.rowBold[row] = bold;
+        summary.rowLengths[row] = write(summary.rowValues[row], 0, prefix, value, format, suffix);
+    }
+
+    private static int write(char[] buffer, int offset, String prefix, double value, FixedPointFormat format,
+                             String suffix) {
+        int pos = offset;
+        prefix.getChars(0, prefix.length(), buffer, pos);
+        pos += prefix.length();
+        pos += format.format(value, buffer, pos);
+        suffix.getChars(0, suffix.length(), buffer, pos);
+        return pos + suffix.length() - offset;
+    }
+}
@@ -0,0 +1,61 @@
+package billing;
+
+/**
+ * The calculator's result as preformatted text: a title, the monthly cost headline, label
+ * and value rows, an optional note and a high-consumption flag. Values live in char
+ * buffers that {@link ResultRenderer} overwrites in place, so one instance serves every
+ * calculation. Not thread-safe; the owner fills and reads it on one thread.
+ */
+public class ResultSummary {
+    public static final int MAX_ROWS = 10;
+
+    private static final int VALUE_LENGTH = FixedPointFormat.MAX_LENGTH + 16;
+
+    String title = "";
+    final char[] headline = new char[VALUE_LENGTH];
+    int headlineLength;
+
+    final String[] rowLabels = new String[MAX_ROWS];
+    final char[][] rowValues = new char[MAX_ROWS][VALUE_LENGTH];
+    final int[] rowLengths = new int[MAX_ROWS];
+    final boolean[] rowBold = new boolean[MAX_ROWS];
+    int rowCount;
+
+    final char[] note = new char[FixedPointFormat.MAX_LENGTH + 96];
+    int noteLength;
+    boolean highConsumption;
+
+    void clear() {
+        title = "";
+        headlineLength = 0;
+        rowCount = 0;
+        noteLength = 0;
+        highConsumption = false;
+    }
+
+    public String getTitle() { return title; }
+    public char[] getHeadline() { return headline; }
+    public int getHeadlineLength() { return headlineLength; }
+    public int getRowCount() { return rowCount; }
+    public String getRowLabel(int row) { return rowLabels[row]; }
+    public char[] getRowValue(int row) { return rowValues[row]; }
+    public int getRowValueLength(int row) { return rowLengths[row]; }
+    public boolean isRowBold(int row) { return rowBold[row]; }
+    public char[] getNote() { return note; }
+    public int getNoteLength() { return noteLength; }
+    public boolean isHighConsumption() { return highConsumption; }
+
+    /** The summary as plain text, one line per item, for logs and tests. */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(title).append('\n');
+        text.append(headline, 0, headlineLength).append('\n');
+        for (int row = 0; row < rowCount; row++) {
+            text.append(rowLabels[row]).append(' ').append(rowValues[row], 0, rowLengths[row]).append('\n');
+        }
+        if (noteLength > 0) {
+            text.append(note, 0, noteLength).append('\n');
+        }
+        return text.toString();
+    }
+}
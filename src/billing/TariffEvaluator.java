@@ -0,0 +1,90 @@
+package billing;
+
+/**
+ * Evaluates a slab tariff. Slab upper limits are precomputed into a cumulative
+ * cost table, so pricing a bill is a binary search plus one multiply and never allocates.
+ */
+public class TariffEvaluator {
+
+    public enum Mode {
+        // Whole consumption charged at the price of the slab it falls in
+        SINGLE_SLAB,
+        // Each slab charged separately at its own price
+        PROGRESSIVE
+    }
+
+    private final double[] kwhTiers;
+    private final double[] unitPrices;
+    // cumulativeCost[i] = progressive cost of all units below the start of slab i
+    private final double[] cumulativeCost;
+    private final Mode mode;
+
+    public TariffEvaluator(double[] kwhTiers, double[] unitPrices, Mode mode) {
+        if (kwhTiers.length == 0 || kwhTiers.length != unitPrices.length) {
+            throw new IllegalArgumentException("Tier limits and unit prices must have the same non-zero length");
+        }
+        for (int i = 1; i < kwhTiers.length; i++) {
+            if (kwhTiers[i] <= kwhTiers[i - 1]) {
+                throw new IllegalArgumentException("Tier limits must be strictly increasing");
+            }
+        }
+        this.kwhTiers = kwhTiers.clone();
+        this.unitPrices = unitPrices.clone();
+        this.mode = mode;
+
+        cumulativeCost = new double[kwhTiers.length];
+        for (int i = 1; i < kwhTiers.length; i++) {
+            double lower = i == 1 ? 0 : kwhTiers[i - 2];
+            cumulativeCost[i] = cumulativeCost[i - 1] + (kwhTiers[i - 1] - lower) * unitPrices[i - 1];
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getTierCount() {
+        return kwhTiers.length;
+    }
+
+    /**
+     * Index of the slab containing {@code kwh}: the first slab whose upper limit is
+     * at least {@code kwh}, or the last slab if consumption exceeds every limit.
+     */
+    public int tierIndex(double kwh) {
+        int low = 0;
+        int high = kwhTiers.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (kwh <= kwhTiers[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /** Price per unit of the slab {@code kwh} falls in. */
+    public double unitPrice(double kwh) {
+        return unitPrices[tierIndex(kwh)];
+    }
+
+    /** Cost of {@code kwh} units under this tariff's mode. */
+    public double cost(double kwh) {
+        int tier = tierIndex(kwh);
+        if (mode == Mode.SINGLE_SLAB) {
+            return kwh * unitPrices[tier];
+        }
+        double lower = tier == 0 ? 0 : kwhTiers[tier - 1];
+        return cumulativeCost[tier] + (kwh - lower) * unitPrices[tier];
+    }
+
+    public double getTierLimit(int tier) {
+        return kwhTiers[tier];
+    }
+
+    public double getTierPrice(int tier) {
+        return unitPrices[tier];
+    }
+}
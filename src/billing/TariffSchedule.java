@@ -0,0 +1,247 @@
+package billing;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * One version of the electricity tariff as the utility publishes it: slab limits and
+ * prices, optional seasonal prices, an optional time-of-use window and a fixed monthly
+ * charge. Schedules are plain immutable values; {@link #compile} turns one into the
+ * lookup tables billing reads.
+ */
+public class TariffSchedule {
+
+    /** Slab prices that replace the base prices for the months {@code firstMonth..lastMonth}. */
+    public static class Season {
+        private final String name;
+        private final int firstMonth;
+        private final int lastMonth;
+        private final double[] unitPrices;
+
+        /** Months are 1-12; a season may wrap the year end, such as November to February. */
+        public Season(String name, int firstMonth, int lastMonth, double[] unitPrices) {
+            if (firstMonth < 1 || firstMonth > 12 || lastMonth < 1 || lastMonth > 12) {
+                throw new IllegalArgumentException("Season months must be between 1 and 12");
+            }
+            this.name = name;
+            this.firstMonth = firstMonth;
+            this.lastMonth = lastMonth;
+            this.unitPrices = unitPrices.clone();
+        }
+
+        public String getName() { return name; }
+        public int getFirstMonth() { return firstMonth; }
+        public int getLastMonth() { return lastMonth; }
+        public double[] getUnitPrices() { return unitPrices.clone(); }
+
+        public boolean contains(int month) {
+            return firstMonth <= lastMonth
+                    ? month >= firstMonth && month <= lastMonth
+                    : month >= firstMonth || month <= lastMonth;
+        }
+    }
+
+    /**
+     * Peak and off-peak price factors. Hours {@code [peakStartHour, peakEndHour)} are peak;
+     * the window may wrap midnight.
+     */
+    public static class TimeOfUse {
+        private final int peakStartHour;
+        private final int peakEndHour;
+        private final double peakFactor;
+        private final double offPeakFactor;
+
+        public TimeOfUse(int peakStartHour, int peakEndHour, double peakFactor, double offPeakFactor) {
+            if (peakStartHour < 0 || peakStartHour > 23 || peakEndHour < 0 || peakEndHour > 24) {
+                throw new IllegalArgumentException("Peak hours must be between 0 and 24");
+            }
+            if (peakFactor < 0 || offPeakFactor < 0) {
+                throw new IllegalArgumentException("Time-of-use factors cannot be negative");
+            }
+            this.peakStartHour = peakStartHour;
+            this.peakEndHour = peakEndHour;
+            this.peakFactor = peakFactor;
+            this.offPeakFactor = offPeakFactor;
+        }
+
+        public int getPeakStartHour() { return peakStartHour; }
+        public int getPeakEndHour() { return peakEndHour; }
+        public double getPeakFactor() { return peakFactor; }
+        public double getOffPeakFactor() { return offPeakFactor; }
+
+        public boolean isPeak(int hour) {
+            return peakStartHour <= peakEndHour
+                    ? hour >= peakStartHour && hour < peakEndHour
+                    : hour >= peakStartHour || hour < peakEndHour;
+        }
+    }
+
+    private final int version;
+    private final LocalDate effectiveFrom;
+    private final double[] kwhTiers;
+    private final double[] unitPrices;
+    private final TariffEvaluator.Mode mode;
+    private final List<Season> seasons;
+    private final TimeOfUse timeOfUse;
+    private final double fixedMonthlyCharge;
+
+    /**
+     * @param seasons    checked in order; the first season containing a month wins
+     * @param timeOfUse  {@code null} for a flat rate at every hour
+     */
+    public TariffSchedule(int version, LocalDate effectiveFrom, double[] kwhTiers, double[] unitPrices,
+                          TariffEvaluator.Mode mode, List<Season> seasons, TimeOfUse timeOfUse,
+                          double fixedMonthlyCharge) {
+        for (Season season : seasons) {
+            if (season.unitPrices.length != unitPrices.length) {
+                throw new IllegalArgumentException("Season " + season.name + " must price every slab");
+            }
+        }
+        if (fixedMonthlyCharge < 0) {
+            throw new IllegalArgumentException("Fixed charge cannot be negative");
+        }
+        this.version = version;
+        this.effectiveFrom = effectiveFrom;
+        this.kwhTiers = kwhTiers.clone();
+        this.unitPrices = unitPrices.clone();
+        this.mode = mode;
+        this.seasons = Collections.unmodifiableList(new ArrayList<>(seasons));
+        this.timeOfUse = timeOfUse;
+        this.fixedMonthlyCharge = fixedMonthlyCharge;
+    }
+
+    /** Version 1 of the calculator's built-in slab tariff, with no seasons, peak hours or fixed charge. */
+    public static TariffSchedule defaultSchedule() {
+        return new TariffSchedule(1, LocalDate.of(2024, 1, 1), BillingEngine.DEFAULT_KWH_TIERS,
+                BillingEngine.DEFAULT_UNIT_PRICES, TariffEvaluator.Mode.SINGLE_SLAB,
+                Collections.emptyList(), null, 0);
+    }
+
+    public int getVersion() { return version; }
+    public LocalDate getEffectiveFrom() { return effectiveFrom; }
+    public double[] getKwhTiers() { return kwhTiers.clone(); }
+    public double[] getUnitPrices() { return unitPrices.clone(); }
+    public TariffEvaluator.Mode getMode() { return mode; }
+    public List<Season> getSeasons() { return seasons; }
+    public TimeOfUse getTimeOfUse() { return timeOfUse; }
+    public double getFixedMonthlyCharge() { return fixedMonthlyCharge; }
+
+    /**
+     * A copy with different prices, seasons, peak hours and fixed charge, numbered as the
+     * next version and effective from {@code effectiveFrom}.
+     */
+    public TariffSchedule revise(LocalDate effectiveFrom, double[] unitPrices, List<Season> seasons,
+                                 TimeOfUse timeOfUse, double fixedMonthlyCharge) {
+        return new TariffSchedule(version + 1, effectiveFrom, kwhTiers, unitPrices, mode, seasons,
+                timeOfUse, fixedMonthlyCharge);
+    }
+
+    /** Builds the lookup tables for this schedule, validating every slab table. */
+    public CompiledTariff compile() {
+        return new CompiledTariff(this);
+    }
+
+    // Persistence
+
+    /** Writes the schedule as a properties file, replacing {@code file} atomically. */
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("version", String.valueOf(version));
+        properties.setProperty("effectiveFrom", effectiveFrom.toString());
+        properties.setProperty("mode", mode.name());
+        properties.setProperty("kwhTiers", join(kwhTiers));
+        properties.setProperty("unitPrices", join(unitPrices));
+        properties.setProperty("fixedMonthlyCharge", String.valueOf(fixedMonthlyCharge));
+        properties.setProperty("seasons", String.valueOf(seasons.size()));
+        for (int i = 0; i < seasons.size(); i++) {
+            Season season = seasons.get(i);
+            properties.setProperty("season." + i + ".name", season.name);
+            properties.setProperty("season." + i + ".months", season.firstMonth + "-" + season.lastMonth);
+            properties.setProperty("season." + i + ".unitPrices", join(season.unitPrices));
+        }
+        if (timeOfUse != null) {
+            properties.setProperty("peakHours", timeOfUse.peakStartHour + "-" + timeOfUse.peakEndHour);
+            properties.setProperty("peakFactor", String.valueOf(timeOfUse.peakFactor));
+            properties.setProperty("offPeakFactor", String.valueOf(timeOfUse.offPeakFactor));
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(out, "Electricity tariff schedule");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reads a schedule written by {@link #save}. */
+    public static TariffSchedule load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        }
+        try {
+            List<Season> seasons = new ArrayList<>();
+            int seasonCount = Integer.parseInt(properties.getProperty("seasons", "0"));
+            for (int i = 0; i < seasonCount; i++) {
+                int[] months = range(required(properties, "season." + i + ".months"));
+                seasons.add(new Season(required(properties, "season." + i + ".name"), months[0], months[1],
+                        split(required(properties, "season." + i + ".unitPrices"))));
+            }
+            TimeOfUse timeOfUse = null;
+            if (properties.getProperty("peakHours") != null) {
+                int[] hours = range(properties.getProperty("peakHours"));
+                timeOfUse = new TimeOfUse(hours[0], hours[1],
+                        Double.parseDouble(required(properties, "peakFactor")),
+                        Double.parseDouble(required(properties, "offPeakFactor")));
+            }
+            return new TariffSchedule(Integer.parseInt(required(properties, "version")),
+                    LocalDate.parse(required(properties, "effectiveFrom")),
+                    split(required(properties, "kwhTiers")), split(required(properties, "unitPrices")),
+                    TariffEvaluator.Mode.valueOf(required(properties, "mode")), seasons, timeOfUse,
+                    Double.parseDouble(properties.getProperty("fixedMonthlyCharge", "0")));
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid tariff schedule " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + key);
+        }
+        return value;
+    }
+
+    private static String join(double[] values) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(values[i] == Double.MAX_VALUE ? "max" : String.valueOf(values[i]));
+        }
+        return text.toString();
+    }
+
+    private static double[] split(String text) {
+        return Arrays.stream(text.split(","))
+                .map(String::trim)
+                .mapToDouble(value -> value.equals("max") ? Double.MAX_VALUE : Double.parseDouble(value))
+                .toArray();
+    }
+
+    private static int[] range(String text) {
+        String[] bounds = text.split("-");
+        return new int[] {Integer.parseInt(bounds[0].trim()), Integer.parseInt(bounds[1].trim())};
+    }
+}
@@ -0,0 +1,459 @@
+package report;
+
+import billing.BillHistory;
+import billing.BillingEngine;
+import billing.CompiledTariff;
+import billing.TariffEvaluator;
+import billing.TariffSchedule;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+import storage.ApplianceTable;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Streams an HTML energy report: summary, tier usage, metered bills, chart renders, a
+ * per-device breakdown and the bill history. Each section starts a new printed page, so
+ * printing the file (or saving it as PDF from a browser) gives a multi-page report.
+ *
+ * <p>Sections are rendered in parallel on a fork-join pool and written in document order.
+ * Only a fixed window of sections is in flight at a time, and the device breakdown is split
+ * into chunks of {@link #DEVICE_ROWS_PER_SECTION} rows, so memory stays bounded however many
+ * devices an account has. {@link #writeBatch} applies the same idea across accounts.
+ */
+public class ReportEngine {
+    public static final int DEVICE_ROWS_PER_SECTION = 1024;
+
+    private static final int CHART_WIDTH = 640;
+    private static final int CHART_HEIGHT = 320;
+
+    private final BillingEngine billingEngine;
+    private final ForkJoinPool pool;
+    private final boolean includeCharts;
+    private final int window;
+
+    public ReportEngine(BillingEngine billingEngine) {
+        this(billingEngine, ForkJoinPool.commonPool(), true);
+    }
+
+    public ReportEngine(BillingEngine billingEngine, ForkJoinPool pool, boolean includeCharts) {
+        this.billingEngine = billingEngine;
+        this.pool = pool;
+        this.includeCharts = includeCharts;
+        this.window = Math.max(2, pool.getParallelism() * 2);
+    }
+
+    /**
+     * One household's data. The table should be a snapshot nothing else modifies. The
+     * tariff, when given, is the one in force when the snapshot was taken; otherwise the
+     * report is priced under the tariff in force when it starts.
+     */
+    public static class Account {
+        private final String name;
+        private final ApplianceTable appliances;
+        private final List<BillHistory> bills;
+        private final List<MeteredMonth> meteredMonths;
+        private final CompiledTariff tariff;
+
+        public Account(String name, ApplianceTable appliances, List<BillHistory> bills) {
+            this(name, appliances, bills, Collections.emptyList(), null);
+        }
+
+        public Account(String name, ApplianceTable appliances, List<BillHistory> bills,
+                       List<MeteredMonth> meteredMonths, CompiledTariff tariff) {
+            this.name = name;
+            this.appliances = appliances;
+            this.bills = bills;
+            this.meteredMonths = meteredMonths;
+            this.tariff = tariff;
+        }
+
+        public String getName() { return name; }
+        public ApplianceTable getAppliances() { return appliances; }
+        public List<BillHistory> getBills() { return bills; }
+        public List<MeteredMonth> getMeteredMonths() { return meteredMonths; }
+        public CompiledTariff getTariff() { return tariff; }
+    }
+
+    /** A month of smart-meter use as kWh per hour of day, priced with the time-of-use rates. */
+    public static class MeteredMonth {
+        private final YearMonth month;
+        private final double[] kwhByHour;
+
+        public MeteredMonth(YearMonth month, double[] kwhByHour) {
+            this.month = month;
+            this.kwhByHour = kwhByHour.clone();
+        }
+
+        public YearMonth getMonth() { return month; }
+        public double[] getKwhByHour() { return kwhByHour.clone(); }
+    }
+
+    public interface ProgressListener {
+        void progress(int sectionsWritten, int totalSections);
+    }
+
+    /**
+     * Writes the report for {@code account} to {@code file}. On failure or interruption
+     * the partial file is deleted.
+     */
+    public void write(Account account, Path file, ProgressListener listener) throws IOException {
+        boolean completed = false;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(account, out, listener);
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    public void write(Account account, Writer out, ProgressListener listener) throws IOException {
+        List<Callable<String>> sections = sections(account);
+        Iterator<Callable<String>> pending = sections.iterator();
+        ArrayDeque<ForkJoinTask<String>> inFlight = new ArrayDeque<>();
+        int written = 0;
+        try {
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < window && pending.hasNext()) {
+                    inFlight.add(submit(pending.next()));
+                }
+                out.write(join(inFlight.poll()));
+                written++;
+                if (listener != null) {
+                    listener.progress(written, sections.size());
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Report cancelled");
+                }
+            }
+        } finally {
+            for (ForkJoinTask<String> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Writes one report per account, running up to the pool's parallelism accounts at a
+     * time. Accounts are pulled from the iterator only as slots free up, so callers can
+     * stream them from storage. Returns the number of reports written.
+     */
+    public int writeBatch(Iterator<Account> accounts, Function<Account, Path> fileFor,
+                          ProgressListener listener) throws IOException {
+        int batchWindow = Math.max(1, pool.getParallelism());
+        ArrayDeque<ForkJoinTask<Void>> inFlight = new ArrayDeque<>();
+        int written = 0;
+        try {
+            while (accounts.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < batchWindow && accounts.hasNext()) {
+                    Account account = accounts.next();
+                    inFlight.add(submit(() -> {
+                        write(account, fileFor.apply(account), null);
+                        return null;
+                    }));
+                }
+                join(inFlight.poll());
+                written++;
+                if (listener != null) {
+                    listener.progress(written, -1);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Batch cancelled after " + written + " reports");
+                }
+            }
+        } finally {
+            for (ForkJoinTask<Void> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+        return written;
+    }
+
+    private <T> ForkJoinTask<T> submit(Callable<T> section) {
+        ForkJoinTask<T> task = ForkJoinTask.adapt(section);
+        if (ForkJoinTask.getPool() == pool) {
+            return task.fork();
+        }
+        pool.execute(task);
+        return task;
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            // adapt() wraps checked exceptions
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Sections
+
+    private List<Callable<String>> sections(Account account) {
+        ApplianceTable appliances = account.getAppliances();
+        // Read once, so sections rendered in parallel never mix two published versions
+        CompiledTariff tariff = account.getTariff() != null ? account.getTariff() : billingEngine.getCompiledTariff();
+        List<Callable<String>> sections = new ArrayList<>();
+        sections.add(() -> header(account, tariff));
+        sections.add(() -> tierUsage(tariff, appliances.totalKwh()));
+        if (!account.getMeteredMonths().isEmpty()) {
+            sections.add(() -> meteredBills(tariff, account.getMeteredMonths()));
+        }
+        if (includeCharts) {
+            sections.add(() -> billChart(account.getBills()));
+            sections.add(() -> costByTypeChart(appliances));
+        }
+        sections.add(ReportEngine::deviceTableStart);
+        for (int first = 0; first < appliances.size(); first += DEVICE_ROWS_PER_SECTION) {
+            int from = first;
+            int to = Math.min(appliances.size(), first + DEVICE_ROWS_PER_SECTION);
+            sections.add(() -> deviceRows(appliances, from, to));
+        }
+        sections.add(() -> "</tbody></table></section>\n" + billHistory(account.getBills()) + "</body></html>\n");
+        return sections;
+    }
+
+    private String header(Account account, CompiledTariff tariff) {
+        DecimalFormat df = new DecimalFormat("#,##0.00");
+        DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
+        ApplianceTable appliances = account.getAppliances();
+        double totalKwh = appliances.totalKwh();
+        double totalCost = appliances.totalMonthlyCost();
+
+        StringBuilder html = new StringBuilder(2048);
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"UTF-8\"><title>Energy Report - ")
+                .append(escape(account.getName())).append("</title>\n<style>\n")
+                .append("body { font-family: 'Segoe UI', sans-serif; color: #333; margin: 30px; }\n")
+                .append("h1 { color: #2980b9; } h2 { color: #2c3e50; border-bottom: 2px solid #eee; padding-bottom: 5px; }\n")
+                .append("section { page-break-before: always; }\n")
+                .append("table { border-collapse: collapse; width: 100%; }\n")
+                .append("th { background: #f5f5f5; text-align: left; } th, td { padding: 6px 10px; border-bottom: 1px solid #eee; }\n")
+                .append("td.num { text-align: right; }\n")
+                .append("</style></head><body>\n");
+        html.append("<h1>Energy Report</h1><p>").append(escape(account.getName())).append("</p>\n");
+        html.append("<h2>Summary</h2><table>\n");
+        html.append("<tr><td>Devices</td><td class=\"num\">").append(appliances.size()).append("</td></tr>\n");
+        html.append("<tr><td>Monthly Energy</td><td class=\"num\">").append(dfKwh.format(totalKwh)).append(" kWh</td></tr>\n");
+        html.append("<tr><td>Monthly Cost</td><td class=\"num\">Rs").append(df.format(totalCost)).append("</td></tr>\n");
+        html.append("<tr><td>Annual Cost</td><td class=\"num\">Rs").append(df.format(totalCost * 12)).append("</td></tr>\n");
+        double fixedCharge = tariff.getFixedMonthlyCharge();
+        if (fixedCharge > 0) {
+            html.append("<tr><td>Fixed Charges</td><td class=\"num\">Rs").append(df.format(fixedCharge)).append("</td></tr>\n");
+        }
+        html.append("<tr><td>Household bill at this usage</td><td class=\"num\">Rs")
+                .append(df.format(tariff.forMonth(LocalDate.now().getMonthValue()).cost(totalKwh) + fixedCharge)).append("</td></tr>\n");
+        List<BillHistory> bills = account.getBills();
+        if (!bills.isEmpty()) {
+            double billTotal = 0;
+            for (BillHistory bill : bills) {
+                billTotal += bill.getAmount();
+            }
+            html.append("<tr><td>Average Bill</td><td class=\"num\">Rs").append(df.format(billTotal / bills.size())).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+        return html.toString();
+    }
+
+    /** How the household's monthly consumption falls across the tariff's slabs. */
+    private String tierUsage(CompiledTariff compiled, double totalKwh) {
+        DecimalFormat df = new DecimalFormat("#,##0.00");
+        DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
+        TariffEvaluator tariff = compiled.forMonth(LocalDate.now().getMonthValue());
+        int appliedTier = tariff.tierIndex(totalKwh);
+
+        StringBuilder html = new StringBuilder(1024);
+        html.append("<section><h2>Tariff Slab Usage</h2>\n<table><thead><tr><th>Slab</th><th>Rate</th>")
+                .append("<th>Units</th><th>Cost</th></tr></thead><tbody>\n");
+        double lower = 0;
+        for (int tier = 0; tier < tariff.getTierCount(); tier++) {
+            double limit = tariff.getTierLimit(tier);
+            double price = tariff.getTierPrice(tier);
+            double units;
+            if (tariff.getMode() == TariffEvaluator.Mode.PROGRESSIVE) {
+                units = Math.max(0, Math.min(totalKwh, limit) - lower);
+            } else {
+                units = tier == appliedTier ? totalKwh : 0;
+            }
+            String range = limit == Double.MAX_VALUE
+                    ? "Above " + dfKwh.format(lower)
+                    : dfKwh.format(lower) + " - " + dfKwh.format(limit);
+            html.append("<tr><td>").append(range).append(" kWh</td><td class=\"num\">Rs").append(df.format(price))
+                    .append("</td><td class=\"num\">").append(dfKwh.format(units))
+                    .append("</td><td class=\"num\">Rs").append(df.format(units * price)).append("</td></tr>\n");
+            lower = limit;
+        }
+        html.append("</tbody></table></section>\n");
+        return html.toString();
+    }
+
+    /** What each metered month costs, with every hour priced at its time-of-use factor. */
+    private String meteredBills(CompiledTariff tariff, List<MeteredMonth> months) {
+        DecimalFormat df = new DecimalFormat("#,##0.00");
+        DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
+        DateTimeFormatter monthFormat = DateTimeFormatter.ofPattern("MMM yyyy");
+        TariffSchedule.TimeOfUse timeOfUse = tariff.getSchedule().getTimeOfUse();
+
+        StringBuilder html = new StringBuilder(1024);
+        html.append("<section><h2>Metered Bills</h2>\n<table><thead><tr><th>Month</th><th>Units</th>")
+                .append("<th>Peak Units</th><th>Energy Cost</th><th>Bill</th></tr></thead><tbody>\n");
+        for (MeteredMonth metered : months) {
+            double[] kwhByHour = metered.kwhByHour;
+            double units = 0;
+            double peakUnits = 0;
+            for (int hour = 0; hour < 24; hour++) {
+                units += kwhByHour[hour];
+                if (timeOfUse != null && timeOfUse.isPeak(hour)) {
+                    peakUnits += kwhByHour[hour];
+                }
+            }
+            double energyCost = tariff.meteredCost(metered.month.getMonthValue(), kwhByHour);
+            html.append("<tr><td>").append(metered.month.format(monthFormat))
+                    .append("</td><td class=\"num\">").append(dfKwh.format(units))
+                    .append("</td><td class=\"num\">").append(dfKwh.format(peakUnits))
+                    .append("</td><td class=\"num\">Rs").append(df.format(energyCost))
+                    .append("</td><td class=\"num\">Rs").append(df.format(energyCost + tariff.getFixedMonthlyCharge()))
+                    .append("</td></tr>\n");
+        }
+        html.append("</tbody></table></section>\n");
+        return html.toString();
+    }
+
+    private String billChart(List<BillHistory> bills) throws IOException {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (BillHistory bill : bills) {
+            dataset.addValue(bill.getKwh(), "Usage", bill.getMonth());
+        }
+        JFreeChart chart = ChartFactory.createLineChart(null, "Month", "kWh", dataset,
+                PlotOrientation.VERTICAL, true, false, false);
+        return "<section><h2>Monthly Energy Consumption</h2>\n" + chartImage(chart) + "</section>\n";
+    }
+
+    private String costByTypeChart(ApplianceTable appliances) throws IOException {
+        double[] costByType = appliances.monthlyCostByType();
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (int code = 0; code < costByType.length; code++) {
+            if (costByType[code] > 0) {
+                dataset.addValue(costByType[code], "Monthly Cost", appliances.getTypeName(code));
+            }
+        }
+        JFreeChart chart = ChartFactory.createBarChart(null, "Device Type", "Rs / month", dataset,
+                PlotOrientation.HORIZONTAL, false, false, false);
+        return "<h2>Cost by Device Type</h2>\n" + chartImage(chart);
+    }
+
+    private static String chartImage(JFreeChart chart) throws IOException {
+        // Same styling as the dashboard's usage chart
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinePaint(new Color(240, 240, 240));
+        plot.setDomainGridlinePaint(new Color(240, 240, 240));
+        chart.setBackgroundPaint(Color.WHITE);
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream(32 * 1024);
+        ChartUtils.writeChartAsPNG(png, chart, CHART_WIDTH, CHART_HEIGHT);
+        return "<p><img alt=\"chart\" width=\"" + CHART_WIDTH + "\" height=\"" + CHART_HEIGHT
+                + "\" src=\"data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray()) + "\"></p>\n";
+    }
+
+    private static String deviceTableStart() {
+        return "<section><h2>Device Breakdown</h2>\n<table><thead><tr><th>Device Name</th><th>Type</th>"
+                + "<th>Power (W)</th><th>Hours/Day</th><th>Monthly kWh</th><th>Monthly Cost</th></tr></thead><tbody>\n";
+    }
+
+    private static String deviceRows(ApplianceTable appliances, int from, int to) {
+        DecimalFormat df = new DecimalFormat("#,##0.00");
+        DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
+        StringBuilder html = new StringBuilder((to - from) * 160);
+        for (int row = from; row < to; row++) {
+            html.append("<tr><td>").append(escape(appliances.getName(row)))
+                    .append("</td><td>").append(escape(appliances.getType(row)))
+                    .append("</td><td class=\"num\">").append(dfKwh.format(appliances.getWatts(row)))
+                    .append("</td><td class=\"num\">").append(dfKwh.format(appliances.getHours(row)))
+                    .append("</td><td class=\"num\">").append(dfKwh.format(appliances.getKwh(row)))
+                    .append("</td><td class=\"num\">Rs").append(df.format(appliances.getMonthlyCost(row)))
+                    .append("</td></tr>\n");
+        }
+        return html.toString();
+    }
+
+    private static String billHistory(List<BillHistory> bills) {
+        DecimalFormat df = new DecimalFormat("#,##0.00");
+        DecimalFormat dfKwh = new DecimalFormat("#,##0.##");
+        StringBuilder html = new StringBuilder(256 + bills.size() * 120);
+        html.append("<section><h2>Bill History</h2>\n<table><thead><tr><th>Month</th><th>Units</th>")
+                .append("<th>Amount</th><th>Date</th></tr></thead><tbody>\n");
+        for (BillHistory bill : bills) {
+            html.append("<tr><td>").append(escape(bill.getMonth()))
+                    .append("</td><td class=\"num\">").append(dfKwh.format(bill.getKwh()))
+                    .append("</td><td class=\"num\">Rs").append(df.format(bill.getAmount()))
+                    .append("</td><td>").append(escape(bill.getDate())).append("</td></tr>\n");
+        }
+        html.append("</tbody></table></section>\n");
+        return html.toString();
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                default: replacement = null;
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? text : escaped.toString();
+    }
+}
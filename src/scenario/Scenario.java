@@ -0,0 +1,114 @@
+package scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A what-if question expressed as rules, such as "every air conditioner at 40% efficiency"
+ * or "every bulb becomes a 9 W LED". Each rule matches appliances by name or type and
+ * changes one input; rules apply in order, so later rules see earlier changes.
+ */
+public class Scenario {
+
+    public enum Target {
+        NAME, TYPE
+    }
+
+    public enum Field {
+        WATTS("Power (W)"),
+        HOURS("Hours/Day"),
+        EFFICIENCY("Efficiency (%)");
+
+        private final String label;
+
+        Field(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    public enum Operation {
+        SET, SCALE
+    }
+
+    public static class Rule {
+        private final Target target;
+        private final String text;
+        private final Field field;
+        private final Operation operation;
+        private final double value;
+
+        /** Matches appliances whose name or type contains {@code text}, ignoring case. */
+        public Rule(Target target, String text, Field field, Operation operation, double value) {
+            this.target = target;
+            this.text = text.trim().toLowerCase(Locale.ROOT);
+            this.field = field;
+            this.operation = operation;
+            this.value = value;
+        }
+
+        public Target getTarget() { return target; }
+        public String getText() { return text; }
+        public Field getField() { return field; }
+        public Operation getOperation() { return operation; }
+        public double getValue() { return value; }
+
+        public boolean matches(String candidate) {
+            return containsIgnoreCase(candidate, text);
+        }
+
+        /** The new value of the rule's field. */
+        public double apply(double current) {
+            double result = operation == Operation.SET ? value : current * value;
+            if (field == Field.HOURS) {
+                return Math.max(0, Math.min(24, result));
+            }
+            if (field == Field.EFFICIENCY) {
+                return Math.max(1, Math.min(100, Math.round(result)));
+            }
+            return Math.max(0, result);
+        }
+
+        @Override
+        public String toString() {
+            return (target == Target.TYPE ? "Type" : "Name") + " contains \"" + text + "\": "
+                    + field + (operation == Operation.SET ? " = " : " × ") + value;
+        }
+    }
+
+    private final String name;
+    private final List<Rule> rules;
+
+    public Scenario(String name, List<Rule> rules) {
+        this.name = name;
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    // Case-insensitive substring search that does not allocate; text is already lower case
+    static boolean containsIgnoreCase(String candidate, String text) {
+        if (candidate == null) {
+            return false;
+        }
+        int last = candidate.length() - text.length();
+        for (int i = 0; i <= last; i++) {
+            if (candidate.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,253 @@
+package scenario;
+
+import billing.BillingEngine;
+import billing.TariffEvaluator;
+import storage.ApplianceTable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Re-bills an appliance table under a {@link Scenario} and reports the savings.
+ *
+ * <p>The table is split into row ranges that are billed in parallel on a fork-join pool;
+ * each range returns partial totals and a savings histogram, which are merged on the way
+ * back up. Type rules are resolved once per type through the table's type dictionary, so
+ * the per-row work is a few array reads, the tariff lookups and no allocation.
+ */
+public class ScenarioSimulator {
+    /** Width of one histogram bin, in percent saved. */
+    public static final int BIN_PERCENT = 5;
+    /** Bin 0 counts appliances that cost more; bins 1..20 cover 0-100% saved. */
+    public static final int HISTOGRAM_BINS = 1 + 100 / BIN_PERCENT;
+
+    private static final int SPLIT_THRESHOLD = 16 * 1024;
+
+    private final BillingEngine engine;
+    private final ForkJoinPool pool;
+
+    public ScenarioSimulator(BillingEngine engine) {
+        this(engine, ForkJoinPool.commonPool());
+    }
+
+    public ScenarioSimulator(BillingEngine engine, ForkJoinPool pool) {
+        this.engine = engine;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs the scenario over {@code appliances}, which should be a snapshot nothing else is
+     * modifying. Interrupting the calling thread abandons the run.
+     */
+    public Result simulate(ApplianceTable appliances, Scenario scenario) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Scenario.Rule> rules = scenario.getRules();
+        // One tariff for the whole run, even if a new schedule is published meanwhile
+        TariffEvaluator tariff = engine.getTariff();
+
+        // Resolve type rules once per type code
+        boolean[][] typeMatches = new boolean[rules.size()][];
+        for (int r = 0; r < rules.size(); r++) {
+            Scenario.Rule rule = rules.get(r);
+            if (rule.getTarget() == Scenario.Target.TYPE) {
+                typeMatches[r] = new boolean[appliances.getTypeCount()];
+                for (int code = 0; code < appliances.getTypeCount(); code++) {
+                    typeMatches[r][code] = rule.matches(appliances.getTypeName(code));
+                }
+            }
+        }
+
+        ForkJoinTask<Partial> task = pool.submit(new SimulationTask(appliances, tariff,
+                rules.toArray(new Scenario.Rule[0]), typeMatches, 0, appliances.size()));
+        Partial totals;
+        try {
+            totals = task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+
+        Map<String, Double> savingsByType = new LinkedHashMap<>();
+        for (int code = 0; code < appliances.getTypeCount(); code++) {
+            if (totals.savingsByType[code] != 0) {
+                savingsByType.put(appliances.getTypeName(code), totals.savingsByType[code]);
+            }
+        }
+        return new Result(scenario, totals, savingsByType, System.nanoTime() - start);
+    }
+
+    private class SimulationTask extends RecursiveTask<Partial> {
+        private final ApplianceTable appliances;
+        private final TariffEvaluator tariff;
+        private final Scenario.Rule[] rules;
+        private final boolean[][] typeMatches;
+        private final int from;
+        private final int to;
+
+        SimulationTask(ApplianceTable appliances, TariffEvaluator tariff, Scenario.Rule[] rules,
+                       boolean[][] typeMatches, int from, int to) {
+            this.appliances = appliances;
+            this.tariff = tariff;
+            this.rules = rules;
+            this.typeMatches = typeMatches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                return simulateRange();
+            }
+            int mid = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(appliances, tariff, rules, typeMatches, from, mid);
+            left.fork();
+            Partial right = new SimulationTask(appliances, tariff, rules, typeMatches, mid, to).compute();
+            return left.join().merge(right);
+        }
+
+        private Partial simulateRange() {
+            Partial partial = new Partial(appliances.getTypeCount());
+            for (int row = from; row < to; row++) {
+                double watts = appliances.getWatts(row);
+                double hours = appliances.getHours(row);
+                int efficiency = appliances.getEfficiency(row);
+                int typeCode = appliances.getTypeCode(row);
+
+                double baselineKwh = engine.monthlyKwh(watts, hours, efficiency);
+                double baselineCost = tariff.cost(baselineKwh);
+                partial.appliances++;
+                partial.baselineKwh += baselineKwh;
+                partial.baselineCost += baselineCost;
+
+                boolean affected = false;
+                for (int r = 0; r < rules.length; r++) {
+                    Scenario.Rule rule = rules[r];
+                    boolean matches = typeMatches[r] != null
+                            ? typeMatches[r][typeCode]
+                            : rule.matches(appliances.getName(row));
+                    if (!matches) {
+                        continue;
+                    }
+                    affected = true;
+                    switch (rule.getField()) {
+                        case WATTS: watts = rule.apply(watts); break;
+                        case HOURS: hours = rule.apply(hours); break;
+                        default: efficiency = (int) rule.apply(efficiency);
+                    }
+                }
+
+                if (!affected) {
+                    partial.scenarioKwh += baselineKwh;
+                    partial.scenarioCost += baselineCost;
+                    continue;
+                }
+                double kwh = engine.monthlyKwh(watts, hours, efficiency);
+                double cost = tariff.cost(kwh);
+                partial.affected++;
+                partial.scenarioKwh += kwh;
+                partial.scenarioCost += cost;
+                partial.savingsByType[typeCode] += baselineCost - cost;
+
+                double savedPercent = baselineCost > 0 ? (baselineCost - cost) * 100 / baselineCost : 0;
+                int bin = savedPercent < 0 ? 0 : 1 + Math.min(HISTOGRAM_BINS - 2, (int) (savedPercent / BIN_PERCENT));
+                partial.histogram[bin]++;
+            }
+            return partial;
+        }
+    }
+
+    private static class Partial {
+        private long appliances;
+        private long affected;
+        private double baselineKwh;
+        private double scenarioKwh;
+        private double baselineCost;
+        private double scenarioCost;
+        private final long[] histogram = new long[HISTOGRAM_BINS];
+        private final double[] savingsByType;
+
+        Partial(int typeCount) {
+            savingsByType = new double[typeCount];
+        }
+
+        Partial merge(Partial other) {
+            appliances += other.appliances;
+            affected += other.affected;
+            baselineKwh += other.baselineKwh;
+            scenarioKwh += other.scenarioKwh;
+            baselineCost += other.baselineCost;
+            scenarioCost += other.scenarioCost;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            for (int i = 0; i < savingsByType.length; i++) {
+                savingsByType[i] += other.savingsByType[i];
+            }
+            return this;
+        }
+    }
+
+    public static class Result {
+        private final Scenario scenario;
+        private final Partial totals;
+        private final Map<String, Double> savingsByType;
+        private final long elapsedNanos;
+
+        private Result(Scenario scenario, Partial totals, Map<String, Double> savingsByType, long elapsedNanos) {
+            this.scenario = scenario;
+            this.totals = totals;
+            this.savingsByType = savingsByType;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Scenario getScenario() { return scenario; }
+        public long getAppliances() { return totals.appliances; }
+        public long getAffected() { return totals.affected; }
+        public double getBaselineKwh() { return totals.baselineKwh; }
+        public double getScenarioKwh() { return totals.scenarioKwh; }
+        public double getBaselineCost() { return totals.baselineCost; }
+        public double getScenarioCost() { return totals.scenarioCost; }
+        public double getSavings() { return totals.baselineCost - totals.scenarioCost; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getSavingsPercent() {
+            return totals.baselineCost > 0 ? getSavings() * 100 / totals.baselineCost : 0;
+        }
+
+        /** Affected appliances per savings bin; see {@link #HISTOGRAM_BINS}. */
+        public long[] getHistogram() {
+            return totals.histogram.clone();
+        }
+
+        /** Monthly savings per device type, for types the scenario touched. */
+        public Map<String, Double> getSavingsByType() {
+            return savingsByType;
+        }
+
+        /**
+         * Approximate percent saved at the given percentile (0-100) of affected appliances,
+         * read from the histogram as the upper edge of the bin it falls in. Appliances that
+         * cost more count as 0%.
+         */
+        public double percentile(double percentile) {
+            long target = (long) Math.ceil(totals.affected * percentile / 100);
+            long seen = 0;
+            for (int bin = 0; bin < totals.histogram.length; bin++) {
+                seen += totals.histogram[bin];
+                if (seen >= target && seen > 0) {
+                    return bin == 0 ? 0 : Math.min(100, bin * BIN_PERCENT);
+                }
+            }
+            return 0;
+        }
+    }
+}
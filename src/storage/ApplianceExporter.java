@@ -0,0 +1,508 @@
+package storage;
+
+import billing.BillHistory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Streams the device table and bill history to CSV, JSON Lines or a compact binary file.
+ *
+ * <p>Rows are encoded into one fixed-size buffer that is written out whenever it fills,
+ * so memory use does not grow with the number of rows. CSV and JSON Lines use the field
+ * names {@link ApplianceImporter} reads back. Because a CSV file has a single header,
+ * bills go to a sibling {@code <name>-bills.csv} file.
+ *
+ * <p>The binary format is big-endian: magic {@code "SEBX"}, version, the type dictionary
+ * ({@code count}, then length-prefixed UTF-8 names), the appliance count followed by rows
+ * of {@code name, typeCode, watts, hours, efficiency, kwh, monthlyCost, addedMillis}, and
+ * the bill count followed by rows of {@code month, kwh, amount, date}.
+ */
+public class ApplianceExporter {
+
+    public enum Format {
+        CSV("csv"),
+        JSON_LINES("jsonl"),
+        BINARY("bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            for (Format format : values()) {
+                if (name.endsWith("." + format.extension)) {
+                    return format;
+                }
+            }
+            return name.endsWith(".json") || name.endsWith(".ndjson") ? JSON_LINES : null;
+        }
+    }
+
+    public interface ProgressListener {
+        void progress(long rowsWritten, long totalRows);
+    }
+
+    private static final int BINARY_MAGIC = 0x53454258; // "SEBX"
+    private static final int BINARY_VERSION = 1;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 10_000;
+    private static final int ROWS_PER_LOCK = 4096;
+
+    private static final byte[] APPLIANCE_HEADER =
+            "name,type,watts,hours,efficiency,kwh,monthly_cost,added_date\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BILL_HEADER = "month,kwh,amount,date\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+    private final byte[] digits = new byte[20];
+    private FileChannel channel;
+    private ProgressListener listener;
+    private long rowsWritten;
+    private long totalRows;
+    private long cachedDayStart = 1;
+    private long cachedDayEnd;
+    private byte[] cachedDay;
+
+    /**
+     * Writes {@code appliances} and, if non-null, {@code bills} to {@code file}. The table
+     * may be the live one: rows are copied out under its read lock a chunk at a time and
+     * written after the lock is released, and the export fails if the table changes in
+     * between. A failed or cancelled (interrupted) export deletes its partial output.
+     */
+    public void export(ApplianceTable appliances, List<BillHistory> bills, Path file, Format format,
+                       ProgressListener listener) throws IOException {
+        this.listener = listener;
+        rowsWritten = 0;
+
+        Path billFile = null;
+        try {
+            TableReader rows = new TableReader(appliances);
+            totalRows = rows.size + (bills != null ? bills.size() : 0);
+            switch (format) {
+                case CSV:
+                    open(file);
+                    writeCsvAppliances(rows);
+                    close();
+                    if (bills != null) {
+                        billFile = siblingBillFile(file);
+                        open(billFile);
+                        writeCsvBills(bills);
+                        close();
+                    }
+                    break;
+                case JSON_LINES:
+                    open(file);
+                    writeJsonAppliances(rows);
+                    if (bills != null) {
+                        writeJsonBills(bills);
+                    }
+                    close();
+                    break;
+                case BINARY:
+                    open(file);
+                    writeBinary(rows, bills);
+                    close();
+                    break;
+            }
+        } catch (IOException e) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            buffer.clear();
+            Files.deleteIfExists(file);
+            if (billFile != null) {
+                Files.deleteIfExists(billFile);
+            }
+            throw e;
+        }
+        if (listener != null) {
+            listener.progress(rowsWritten, totalRows);
+        }
+    }
+
+    public static Path siblingBillFile(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return file.resolveSibling(base + "-bills.csv");
+    }
+
+    // CSV
+
+    private void writeCsvAppliances(TableReader rows) throws IOException {
+        put(APPLIANCE_HEADER);
+        while (rows.next()) {
+            putCsvText(rows.name());
+            putByte(',');
+            putCsvText(rows.type());
+            putByte(',');
+            putNumber(rows.watts());
+            putByte(',');
+            putNumber(rows.hours());
+            putByte(',');
+            putLong(rows.efficiency());
+            putByte(',');
+            putNumber(rows.kwh());
+            putByte(',');
+            putNumber(rows.monthlyCost());
+            putByte(',');
+            putDate(rows.addedMillis());
+            putByte('\n');
+            rowDone();
+        }
+    }
+
+    private void writeCsvBills(List<BillHistory> bills) throws IOException {
+        put(BILL_HEADER);
+        for (BillHistory bill : bills) {
+            putCsvText(bill.getMonth());
+            putByte(',');
+            putNumber(bill.getKwh());
+            putByte(',');
+            putNumber(bill.getAmount());
+            putByte(',');
+            putCsvText(bill.getDate());
+            putByte('\n');
+            rowDone();
+        }
+    }
+
+    private void putCsvText(String text) throws IOException {
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0;
+        if (!quote) {
+            put(text.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        putByte('"');
+        put(text.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+        putByte('"');
+    }
+
+    // JSON Lines
+
+    private void writeJsonAppliances(TableReader rows) throws IOException {
+        while (rows.next()) {
+            putAscii("{\"name\":");
+            putJsonText(rows.name());
+            putAscii(",\"type\":");
+            putJsonText(rows.type());
+            putAscii(",\"watts\":");
+            putNumber(rows.watts());
+            putAscii(",\"hours\":");
+            putNumber(rows.hours());
+            putAscii(",\"efficiency\":");
+            putLong(rows.efficiency());
+            putAscii(",\"kwh\":");
+            putNumber(rows.kwh());
+            putAscii(",\"monthly_cost\":");
+            putNumber(rows.monthlyCost());
+            putAscii(",\"added_date\":\"");
+            putDate(rows.addedMillis());
+            putAscii("\"}\n");
+            rowDone();
+        }
+    }
+
+    private void writeJsonBills(List<BillHistory> bills) throws IOException {
+        for (BillHistory bill : bills) {
+            putAscii("{\"month\":");
+            putJsonText(bill.getMonth());
+            putAscii(",\"kwh\":");
+            putNumber(bill.getKwh());
+            putAscii(",\"amount\":");
+            putNumber(bill.getAmount());
+            putAscii(",\"date\":");
+            putJsonText(bill.getDate());
+            putAscii("}\n");
+            rowDone();
+        }
+    }
+
+    private void putJsonText(String text) throws IOException {
+        putByte('"');
+        boolean plain = true;
+        for (int i = 0; i < text.length() && plain; i++) {
+            char c = text.charAt(i);
+            plain = c >= ' ' && c != '"' && c != '\\';
+        }
+        if (plain) {
+            put(text.getBytes(StandardCharsets.UTF_8));
+        } else {
+            StringBuilder escaped = new StringBuilder(text.length() + 8);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"': escaped.append("\\\""); break;
+                    case '\\': escaped.append("\\\\"); break;
+                    case '\n': escaped.append("\\n"); break;
+                    case '\r': escaped.append("\\r"); break;
+                    case '\t': escaped.append("\\t"); break;
+                    default:
+                        if (c < ' ') {
+                            escaped.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            escaped.append(c);
+                        }
+                }
+            }
+            put(escaped.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        putByte('"');
+    }
+
+    // Binary
+
+    private void writeBinary(TableReader rows, List<BillHistory> bills) throws IOException {
+        ensure(12);
+        buffer.putInt(BINARY_MAGIC);
+        buffer.putInt(BINARY_VERSION);
+        buffer.putInt(rows.typeNames.length);
+        for (String typeName : rows.typeNames) {
+            putBinaryText(typeName);
+        }
+
+        ensure(4);
+        buffer.putInt(rows.size);
+        while (rows.next()) {
+            putBinaryText(rows.name());
+            ensure(4 + 8 + 8 + 4 + 8 + 8 + 8);
+            buffer.putInt(rows.typeCode());
+            buffer.putDouble(rows.watts());
+            buffer.putDouble(rows.hours());
+            buffer.putInt(rows.efficiency());
+            buffer.putDouble(rows.kwh());
+            buffer.putDouble(rows.monthlyCost());
+            buffer.putLong(rows.addedMillis());
+            rowDone();
+        }
+
+        ensure(4);
+        buffer.putInt(bills != null ? bills.size() : 0);
+        if (bills != null) {
+            for (BillHistory bill : bills) {
+                putBinaryText(bill.getMonth());
+                ensure(16);
+                buffer.putDouble(bill.getKwh());
+                buffer.putDouble(bill.getAmount());
+                putBinaryText(bill.getDate());
+                rowDone();
+            }
+        }
+    }
+
+    // Cut to fit the 16-bit length prefix, as the store does
+    private void putBinaryText(String text) throws IOException {
+        byte[] bytes = ApplianceStore.utf8(text);
+        ensure(2);
+        buffer.putShort((short) bytes.length);
+        put(bytes);
+    }
+
+    /**
+     * Copies a table out a chunk of rows at a time under its read lock, and hands the rows
+     * out once the lock is released. The owner's edits wait only for a chunk to be copied,
+     * never for the file to be written. An edit between chunks fails the export rather than
+     * writing a file that mixes two versions of the table.
+     */
+    private static final class TableReader {
+        final int size;
+        final String[] typeNames;
+        private final ApplianceTable table;
+        private final ApplianceTable.Cursor cursor;
+        private final long version;
+
+        private final String[] names = new String[ROWS_PER_LOCK];
+        private final int[] typeCodes = new int[ROWS_PER_LOCK];
+        private final double[] watts = new double[ROWS_PER_LOCK];
+        private final double[] hours = new double[ROWS_PER_LOCK];
+        private final int[] efficiency = new int[ROWS_PER_LOCK];
+        private final double[] kwh = new double[ROWS_PER_LOCK];
+        private final double[] monthlyCost = new double[ROWS_PER_LOCK];
+        private final long[] addedMillis = new long[ROWS_PER_LOCK];
+        private int copied;
+        private int count;
+        private int index = -1;
+
+        TableReader(ApplianceTable table) {
+            this.table = table;
+            Lock lock = table.readLock();
+            lock.lock();
+            try {
+                cursor = table.cursor();
+                size = table.size();
+                version = table.getVersion();
+                typeNames = new String[table.getTypeCount()];
+                for (int t = 0; t < typeNames.length; t++) {
+                    typeNames[t] = table.getTypeName(t);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean next() throws IOException {
+            if (++index < count) {
+                return true;
+            }
+            if (copied == size) {
+                return false;
+            }
+            copyChunk();
+            index = 0;
+            return true;
+        }
+
+        private void copyChunk() throws IOException {
+            Lock lock = table.readLock();
+            lock.lock();
+            try {
+                if (table.getVersion() != version) {
+                    throw new IOException("The device list changed during the export; export again");
+                }
+                count = 0;
+                while (count < ROWS_PER_LOCK && cursor.next()) {
+                    names[count] = cursor.name();
+                    typeCodes[count] = cursor.typeCode();
+                    watts[count] = cursor.watts();
+                    hours[count] = cursor.hours();
+                    efficiency[count] = cursor.efficiency();
+                    kwh[count] = cursor.kwh();
+                    monthlyCost[count] = cursor.monthlyCost();
+                    addedMillis[count] = cursor.addedMillis();
+                    count++;
+                }
+                copied += count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        String name() { return names[index]; }
+        int typeCode() { return typeCodes[index]; }
+        String type() { return typeNames[typeCodes[index]]; }
+        double watts() { return watts[index]; }
+        double hours() { return hours[index]; }
+        int efficiency() { return efficiency[index]; }
+        double kwh() { return kwh[index]; }
+        double monthlyCost() { return monthlyCost[index]; }
+        long addedMillis() { return addedMillis[index]; }
+    }
+
+    // Buffered output
+
+    private void open(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.clear();
+    }
+
+    private void close() throws IOException {
+        flush();
+        channel.close();
+        channel = null;
+    }
+
+    private void flush() throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Export cancelled");
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+    private void putByte(char c) throws IOException {
+        ensure(1);
+        buffer.put((byte) c);
+    }
+
+    private void putAscii(String text) throws IOException {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    /** Whole numbers are written digit by digit; fractional values use the shortest round-trip form. */
+    private void putNumber(double value) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            putLong((long) value);
+        } else {
+            putAscii(Double.toString(value));
+        }
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+    }
+
+    private void putDate(long millis) throws IOException {
+        // Rows added together share a day, so reuse the last formatted one
+        if (millis < cachedDayStart || millis >= cachedDayEnd) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate day = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+            cachedDayStart = day.atStartOfDay(zone).toInstant().toEpochMilli();
+            cachedDayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            cachedDay = day.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        put(cachedDay);
+    }
+
+    private void rowDone() {
+        rowsWritten++;
+        if (listener != null && rowsWritten % PROGRESS_INTERVAL == 0) {
+            listener.progress(rowsWritten, totalRows);
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package storage;
+
+import billing.ApplianceData;
+import billing.BillHistory;
+import billing.BillingEngine;
+import billing.BillingResult;
+import billing.DeviceCatalog;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams appliance and bill records out of CSV or JSON Lines files.
+ *
+ * <p>The file is read through a reusable NIO buffer one line at a time. Fields are located
+ * by offset and numbers are parsed straight from the bytes, so the only strings created
+ * per row are the ones that end up in the record. Repeated values such as device types
+ * are decoded once and shared.
+ *
+ * <p>CSV files start with a header row. A header containing {@code month} marks a bill
+ * file; otherwise rows are appliances. JSON Lines files hold one flat object per line
+ * (a surrounding {@code [ ... ]} array with one object per line is also accepted), and
+ * an object with a {@code month} key is a bill. Field names are the ones written by
+ * the exporter: {@code name, type, watts, hours, efficiency, kwh, monthly_cost,
+ * added_date} for appliances and {@code month, kwh, amount, date} for bills. Missing
+ * watts, hours and efficiency are taken from the device catalog profile matching the
+ * name, or else the type's typical device, and missing kWh and cost are billed with the
+ * supplied engine.
+ *
+ * <p>Rows with a {@code timestamp} (epoch millis or ISO {@code yyyy-MM-ddTHH:mm[:ss]}
+ * local time) and {@code kwh} are smart-meter readings.
+ */
+public class ApplianceImporter {
+
+    public interface RecordSink {
+        void appliance(ApplianceData appliance);
+
+        void bill(BillHistory bill);
+
+        default void reading(long timestampMillis, double kwh) {
+        }
+    }
+
+    public interface ProgressListener {
+        void progress(long bytesRead, long totalBytes, long records);
+    }
+
+    public static class ImportResult {
+        private final long appliances;
+        private final long bills;
+        private final long readings;
+        private final long skipped;
+
+        public ImportResult(long appliances, long bills, long readings, long skipped) {
+            this.appliances = appliances;
+            this.bills = bills;
+            this.readings = readings;
+            this.skipped = skipped;
+        }
+
+        public long getAppliances() { return appliances; }
+        public long getBills() { return bills; }
+        public long getReadings() { return readings; }
+        public long getSkipped() { return skipped; }
+    }
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    // Field ids
+    private static final int NAME = 0;
+    private static final int TYPE = 1;
+    private static final int WATTS = 2;
+    private static final int HOURS = 3;
+    private static final int EFFICIENCY = 4;
+    private static final int KWH = 5;
+    private static final int MONTHLY_COST = 6;
+    private static final int ADDED_DATE = 7;
+    private static final int MONTH = 8;
+    private static final int AMOUNT = 9;
+    private static final int DATE = 10;
+    private static final int TIMESTAMP = 11;
+    private static final String[] FIELD_NAMES = {
+            "name", "type", "watts", "hours", "efficiency", "kwh", "monthly_cost", "added_date",
+            "month", "amount", "date", "timestamp"
+    };
+    private static final byte[][] FIELD_KEYS = new byte[FIELD_NAMES.length][];
+
+    static {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            FIELD_KEYS[i] = FIELD_NAMES[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final BillingEngine engine;
+    private final DeviceCatalog catalog;
+
+    // Per-import parse state, reused for every row
+    private final int[] fieldStart = new int[FIELD_NAMES.length];
+    private final int[] fieldEnd = new int[FIELD_NAMES.length];
+    private final boolean[] fieldEscaped = new boolean[FIELD_NAMES.length];
+    private int[] csvColumns;
+    private final Map<String, String> sharedStrings = new HashMap<>();
+    private byte[] decodeBuffer = new byte[256];
+    private final byte[] lastDate = new byte[10];
+    private long lastDateMillis;
+
+    private boolean csv;
+    private boolean headerRead;
+    private long appliances;
+    private long bills;
+    private long readings;
+    private long skipped;
+
+    public ApplianceImporter(BillingEngine engine) {
+        this(engine, DeviceCatalog.getDefault());
+    }
+
+    public ApplianceImporter(BillingEngine engine, DeviceCatalog catalog) {
+        this.engine = engine;
+        this.catalog = catalog;
+    }
+
+    public static boolean isSupported(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".csv") || name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson");
+    }
+
+    /**
+     * Reads {@code file} and hands every record to {@code sink}. Stops with an
+     * {@link InterruptedIOException} if the calling thread is interrupted.
+     */
+    public ImportResult importFile(Path file, RecordSink sink, ProgressListener listener) throws IOException {
+        csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+        headerRead = false;
+        csvColumns = null;
+        appliances = bills = readings = skipped = 0;
+        sharedStrings.clear();
+        Arrays.fill(lastDate, (byte) 0);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long total = channel.size();
+            long read = 0;
+            long nextReport = PROGRESS_INTERVAL;
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Import cancelled");
+                }
+                int n = channel.read(buffer);
+                if (n > 0) {
+                    read += n;
+                }
+                buffer.flip();
+                byte[] data = buffer.array();
+                int lineStart = 0;
+                int limit = buffer.limit();
+                for (int i = 0; i < limit; i++) {
+                    if (data[i] == '\n') {
+                        parseLine(data, lineStart, i, sink);
+                        lineStart = i + 1;
+                    }
+                }
+                if (n < 0) {
+                    if (lineStart < limit) {
+                        parseLine(data, lineStart, limit, sink);
+                    }
+                    break;
+                }
+
+                // Keep the partial last line; grow the buffer if one line fills it
+                buffer.position(lineStart);
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+
+                long records = appliances + bills + readings;
+                if (listener != null && records >= nextReport) {
+                    listener.progress(read, total, records);
+                    nextReport = records + PROGRESS_INTERVAL;
+                }
+            }
+            if (listener != null) {
+                listener.progress(read, total, appliances + bills + readings);
+            }
+        }
+        return new ImportResult(appliances, bills, readings, skipped);
+    }
+
+    private void parseLine(byte[] data, int start, int end, RecordSink sink) {
+        // Trim whitespace and carriage returns (bytes compared unsigned so UTF-8 survives)
+        while (start < end && (data[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (data[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+
+        Arrays.fill(fieldStart, -1);
+        boolean parsed;
+        if (csv) {
+            if (!headerRead) {
+                readCsvHeader(data, start, end);
+                headerRead = true;
+                return;
+            }
+            parsed = splitCsv(data, start, end);
+        } else {
+            parsed = splitJson(data, start, end);
+            if (!parsed && (data[start] == '[' || data[start] == ']')) {
+                return;
+            }
+        }
+
+        if (!parsed) {
+            skipped++;
+        } else if (fieldStart[MONTH] >= 0) {
+            emitBill(data, sink);
+        } else if (fieldStart[TIMESTAMP] >= 0) {
+            emitReading(data, sink);
+        } else if (fieldStart[NAME] >= 0) {
+            emitAppliance(data, sink);
+        } else {
+            skipped++;
+        }
+    }
+
+    private void emitAppliance(byte[] data, RecordSink sink) {
+        try {
+            String name = text(data, NAME, false);
+            String type = fieldStart[TYPE] >= 0 ? text(data, TYPE, true) : "Other";
+            double watts;
+            double hours;
+            int efficiency;
+            if (present(WATTS) && present(HOURS) && present(EFFICIENCY)) {
+                watts = number(data, WATTS, 0);
+                hours = number(data, HOURS, 0);
+                efficiency = (int) number(data, EFFICIENCY, 100);
+            } else {
+                // Complete the row from the catalog
+                DeviceCatalog.DeviceProfile profile = catalog.find(name);
+                if (profile == null) {
+                    profile = catalog.typical(type);
+                }
+                watts = number(data, WATTS, profile != null ? profile.getWatts() : 0);
+                hours = number(data, HOURS, profile != null ? profile.getHoursPerDay() : 0);
+                efficiency = (int) number(data, EFFICIENCY, profile != null ? profile.getDutyCycle() : 100);
+            }
+            double kwh;
+            double monthlyCost;
+            if (fieldStart[KWH] >= 0 && fieldStart[MONTHLY_COST] >= 0) {
+                kwh = number(data, KWH, 0);
+                monthlyCost = number(data, MONTHLY_COST, 0);
+            } else {
+                BillingResult result = engine.bill(watts, hours, efficiency);
+                kwh = result.getKwh();
+                monthlyCost = result.getMonthlyCost();
+            }
+            long added = fieldStart[ADDED_DATE] >= 0
+                    ? parseDate(data, fieldStart[ADDED_DATE], fieldEnd[ADDED_DATE])
+                    : System.currentTimeMillis();
+            sink.appliance(new ApplianceData(name, type, watts, hours, efficiency, kwh, monthlyCost, new Date(added)));
+            appliances++;
+        } catch (NumberFormatException | DateTimeException e) {
+            skipped++;
+        }
+    }
+
+    private void emitBill(byte[] data, RecordSink sink) {
+        try {
+            sink.bill(new BillHistory(text(data, MONTH, true), number(data, KWH, 0), number(data, AMOUNT, 0),
+                    fieldStart[DATE] >= 0 ? text(data, DATE, false) : ""));
+            bills++;
+        } catch (NumberFormatException | DateTimeException e) {
+            skipped++;
+        }
+    }
+
+    private void emitReading(byte[] data, RecordSink sink) {
+        try {
+            long timestamp = parseTimestamp(data, fieldStart[TIMESTAMP], fieldEnd[TIMESTAMP]);
+            sink.reading(timestamp, number(data, KWH, 0));
+            readings++;
+        } catch (NumberFormatException | DateTimeException e) {
+            skipped++;
+        }
+    }
+
+    // CSV
+
+    private void readCsvHeader(byte[] data, int start, int end) {
+        int columns = 1;
+        for (int i = start; i < end; i++) {
+            if (data[i] == ',') {
+                columns++;
+            }
+        }
+        csvColumns = new int[columns];
+        int column = 0;
+        int fieldBegin = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || data[i] == ',') {
+                int s = fieldBegin;
+                int e = i;
+                while (s < e && ((data[s] & 0xFF) <= ' ' || data[s] == '"')) s++;
+                while (e > s && ((data[e - 1] & 0xFF) <= ' ' || data[e - 1] == '"')) e--;
+                csvColumns[column++] = fieldId(data, s, e);
+                fieldBegin = i + 1;
+            }
+        }
+    }
+
+    private boolean splitCsv(byte[] data, int start, int end) {
+        int column = 0;
+        int i = start;
+        while (i <= end && column < csvColumns.length) {
+            int s;
+            int e;
+            boolean escaped = false;
+            if (i < end && data[i] == '"') {
+                s = ++i;
+                while (i < end) {
+                    if (data[i] == '"') {
+                        if (i + 1 < end && data[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                e = i;
+                // Skip closing quote up to the separator
+                while (i < end && data[i] != ',') {
+                    i++;
+                }
+            } else {
+                s = i;
+                while (i < end && data[i] != ',') {
+                    i++;
+                }
+                e = i;
+            }
+            int field = csvColumns[column++];
+            if (field >= 0) {
+                fieldStart[field] = s;
+                fieldEnd[field] = e;
+                fieldEscaped[field] = escaped;
+            }
+            i++;
+        }
+        return column == csvColumns.length;
+    }
+
+    // JSON Lines
+
+    private boolean splitJson(byte[] data, int start, int end) {
+        int i = start;
+        if (data[i] == '[') {
+            i++;
+            while (i < end && (data[i] & 0xFF) <= ' ') i++;
+        }
+        if (i >= end || data[i] != '{') {
+            return false;
+        }
+        i++;
+        while (i < end) {
+            while (i < end && ((data[i] & 0xFF) <= ' ' || data[i] == ',')) i++;
+            if (i >= end || data[i] == '}') {
+                return true;
+            }
+            if (data[i] != '"') {
+                return false;
+            }
+            int keyStart = ++i;
+            while (i < end && data[i] != '"') i++;
+            int field = fieldId(data, keyStart, i);
+            i++;
+            while (i < end && ((data[i] & 0xFF) <= ' ' || data[i] == ':')) i++;
+            if (i >= end) {
+                return false;
+            }
+
+            int s;
+            int e;
+            boolean escaped = false;
+            if (data[i] == '"') {
+                s = ++i;
+                while (i < end && data[i] != '"') {
+                    if (data[i] == '\\') {
+                        escaped = true;
+                        i++;
+                    }
+                    i++;
+                }
+                e = i++;
+            } else {
+                s = i;
+                while (i < end && data[i] != ',' && data[i] != '}' && (data[i] & 0xFF) > ' ') i++;
+                e = i;
+            }
+            if (field >= 0) {
+                fieldStart[field] = s;
+                fieldEnd[field] = e;
+                fieldEscaped[field] = escaped;
+            }
+        }
+        return false;
+    }
+
+    // Field decoding
+
+    private static int fieldId(byte[] data, int start, int end) {
+        for (int f = 0; f < FIELD_KEYS.length; f++) {
+            byte[] key = FIELD_KEYS[f];
+            if (key.length == end - start && Arrays.equals(key, 0, key.length, data, start, end)) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    private String text(byte[] data, int field, boolean shared) {
+        int s = fieldStart[field];
+        int e = fieldEnd[field];
+        if (s < 0) {
+            return "";
+        }
+        String value;
+        if (fieldEscaped[field]) {
+            value = unescape(data, s, e);
+        } else {
+            value = new String(data, s, e - s, StandardCharsets.UTF_8);
+        }
+        if (shared) {
+            String existing = sharedStrings.putIfAbsent(value, value);
+            return existing != null ? existing : value;
+        }
+        return value;
+    }
+
+    private String unescape(byte[] data, int start, int end) {
+        if (decodeBuffer.length < end - start) {
+            decodeBuffer = new byte[end - start];
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            byte b = data[i];
+            if (csv && b == '"' && i + 1 < end && data[i + 1] == '"') {
+                i++;
+            } else if (!csv && b == '\\' && i + 1 < end) {
+                byte next = data[++i];
+                switch (next) {
+                    case 'n': b = '\n'; break;
+                    case 't': b = '\t'; break;
+                    case 'r': b = '\r'; break;
+                    case 'u':
+                        if (i + 4 < end) {
+                            int codePoint = Integer.parseInt(new String(data, i + 1, 4, StandardCharsets.US_ASCII), 16);
+                            byte[] encoded = String.valueOf((char) codePoint).getBytes(StandardCharsets.UTF_8);
+                            for (byte c : encoded) {
+                                decodeBuffer[n++] = c;
+                            }
+                            i += 4;
+                            continue;
+                        }
+                        b = next;
+                        break;
+                    default: b = next; break;
+                }
+            }
+            decodeBuffer[n++] = b;
+        }
+        return new String(decodeBuffer, 0, n, StandardCharsets.UTF_8);
+    }
+
+    private boolean present(int field) {
+        return fieldStart[field] >= 0 && fieldStart[field] != fieldEnd[field];
+    }
+
+    private double number(byte[] data, int field, double defaultValue) {
+        int s = fieldStart[field];
+        if (s < 0 || s == fieldEnd[field]) {
+            return defaultValue;
+        }
+        return parseDouble(data, s, fieldEnd[field]);
+    }
+
+    /**
+     * Parses a plain decimal straight from bytes. Exponents and values beyond exact
+     * long precision fall back to {@link Double#parseDouble}.
+     */
+    static double parseDouble(byte[] data, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (data[i] == '-' || data[i] == '+') {
+            negative = data[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = data[i];
+            if (b >= '0' && b <= '9') {
+                if (digits == 18) {
+                    return Double.parseDouble(new String(data, start, end - start, StandardCharsets.US_ASCII));
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                // Exponent, thousands separators and anything else take the slow path
+                return Double.parseDouble(new String(data, start, end - start, StandardCharsets.US_ASCII));
+            }
+        }
+        if (fractionDigits >= POWERS_OF_TEN.length || mantissa >= (1L << 53)) {
+            return Double.parseDouble(new String(data, start, end - start, StandardCharsets.US_ASCII));
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Accepts a local date-time ({@code yyyy-MM-ddTHH:mm[:ss]}, with a {@code T} or a space),
+     * or anything {@link #parseDate} accepts.
+     */
+    private long parseTimestamp(byte[] data, int start, int end) {
+        if (end - start >= 16 && data[start + 4] == '-' && (data[start + 10] == 'T' || data[start + 10] == ' ')) {
+            String text = new String(data, start, end - start, StandardCharsets.US_ASCII).replace(' ', 'T');
+            return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return parseDate(data, start, end);
+    }
+
+    /** Accepts {@code yyyy-MM-dd} or epoch milliseconds. */
+    private long parseDate(byte[] data, int start, int end) {
+        if (end - start == 10 && data[start + 4] == '-' && data[start + 7] == '-') {
+            // Exports usually repeat the same dates, so remember the last one
+            if (Arrays.equals(lastDate, 0, 10, data, start, end)) {
+                return lastDateMillis;
+            }
+            int year = digits(data, start, start + 4);
+            int month = digits(data, start + 5, start + 7);
+            int day = digits(data, start + 8, start + 10);
+            lastDateMillis = LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            System.arraycopy(data, start, lastDate, 0, 10);
+            return lastDateMillis;
+        }
+        long millis = 0;
+        for (int i = start; i < end; i++) {
+            if (data[i] < '0' || data[i] > '9') {
+                throw new NumberFormatException("Bad date");
+            }
+            millis = millis * 10 + (data[i] - '0');
+        }
+        return millis;
+    }
+
+    private static int digits(byte[] data, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            if (data[i] < '0' || data[i] > '9') {
+                throw new NumberFormatException("Bad date");
+            }
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+}
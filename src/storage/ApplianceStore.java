@@ -0,0 +1,498 @@
+package storage;
+
+import billing.ApplianceData;
+import billing.BillHistory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable store for saved appliances and bill history, backed by an append-only,
+ * memory-mapped log.
+ *
+ * <p>Mutations update the in-memory lists immediately on the calling thread (normally
+ * the EDT) and queue the log append on a single background writer, so callers never
+ * wait on disk. Deletes are written as tombstones; once dead records outnumber live
+ * ones the writer rewrites the log with only the live records.
+ */
+public class ApplianceStore implements AutoCloseable {
+    private static final String LOG_NAME = "appliances.log";
+
+    private static final int MAGIC = 0x53454231; // "SEB1"
+    private static final int VERSION = 1;
+    // magic, version, committed end offset
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET_POSITION = 8;
+    private static final int INITIAL_MAP_SIZE = 1 << 20;
+
+    private static final byte PUT_APPLIANCE = 1;
+    private static final byte DELETE_APPLIANCE = 2;
+    private static final byte PUT_BILL = 3;
+
+    // Compact only once the log has at least this many dead records
+    private static final int MIN_DEAD_RECORDS_FOR_COMPACTION = 1024;
+    // Strings are stored with an unsigned 16-bit length
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Path logFile;
+    private final ExecutorService writer;
+
+    // Owned by the calling thread
+    private final ApplianceTable appliances = new ApplianceTable();
+    private final List<BillHistory> billHistory = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private long nextId;
+
+    // Owned by the writer thread
+    private LogFile log;
+    private int liveRecords;
+    private int deadRecords;
+
+    /**
+     * Notified on the mutating thread after the in-memory data changes.
+     */
+    public interface Listener {
+        default void appliancesAdded(int firstRow, int lastRow) {
+        }
+
+        default void applianceRemoved(int row, long id, ApplianceData removed) {
+        }
+
+        default void billsAdded(int firstIndex, int lastIndex) {
+        }
+    }
+
+    private ApplianceStore(Path logFile) {
+        this.logFile = logFile;
+        this.writer = logFile == null ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "appliance-store-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens (or creates) the store in {@code directory} and replays its log.
+     */
+    public static ApplianceStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ApplianceStore store = new ApplianceStore(directory.resolve(LOG_NAME));
+        store.load();
+        return store;
+    }
+
+    /**
+     * A store that keeps everything in memory and writes nothing to disk.
+     */
+    public static ApplianceStore inMemory() {
+        return new ApplianceStore(null);
+    }
+
+    /**
+     * Read-only list view of the appliances; each {@code get} materializes a row.
+     */
+    public List<ApplianceData> getAppliances() {
+        return new AbstractList<ApplianceData>() {
+            @Override
+            public ApplianceData get(int index) {
+                return appliances.get(index);
+            }
+
+            @Override
+            public int size() {
+                return appliances.size();
+            }
+        };
+    }
+
+    /**
+     * The columnar appliance table, for cursor-based aggregation. Treat as read-only.
+     */
+    public ApplianceTable getApplianceTable() {
+        return appliances;
+    }
+
+    public List<BillHistory> getBillHistory() {
+        return Collections.unmodifiableList(billHistory);
+    }
+
+    public boolean isEmpty() {
+        return appliances.size() == 0 && billHistory.isEmpty();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addAppliance(ApplianceData appliance) {
+        addAppliances(Collections.singletonList(appliance));
+    }
+
+    /**
+     * Adds a batch of appliances with a single listener notification and a single queued write.
+     */
+    public void addAppliances(List<ApplianceData> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int firstRow = appliances.size();
+        long firstId = nextId;
+        for (ApplianceData appliance : batch) {
+            appliances.add(nextId++, appliance);
+        }
+        List<ApplianceData> pending = new ArrayList<>(batch);
+        submit(() -> {
+            long id = firstId;
+            for (ApplianceData appliance : pending) {
+                log.append(PUT_APPLIANCE, encodeAppliance(id++, appliance.getName(), appliance.getType(),
+                        appliance.getWatts(), appliance.getHours(), appliance.getEfficiency(), appliance.getKwh(),
+                        appliance.getMonthlyCost(), appliance.getAddedDate().getTime()));
+                liveRecords++;
+            }
+        });
+        int lastRow = appliances.size() - 1;
+        for (Listener listener : listeners) {
+            listener.appliancesAdded(firstRow, lastRow);
+        }
+    }
+
+    public ApplianceData removeAppliance(int index) {
+        ApplianceData removed = appliances.get(index);
+        long id = appliances.getId(index);
+        appliances.remove(index);
+        for (Listener listener : listeners) {
+            listener.applianceRemoved(index, id, removed);
+        }
+        submit(() -> {
+            log.append(DELETE_APPLIANCE, encodeId(id));
+            // Both the tombstone and the record it deletes are now dead
+            liveRecords--;
+            deadRecords += 2;
+            if (deadRecords >= MIN_DEAD_RECORDS_FOR_COMPACTION && deadRecords > liveRecords) {
+                compact();
+            }
+        });
+        return removed;
+    }
+
+    public void addBill(BillHistory bill) {
+        addBills(Collections.singletonList(bill));
+    }
+
+    /**
+     * Adds a batch of bills with a single listener notification and a single queued write.
+     */
+    public void addBills(List<BillHistory> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int firstIndex = billHistory.size();
+        billHistory.addAll(batch);
+        List<BillHistory> pending = new ArrayList<>(batch);
+        submit(() -> {
+            for (BillHistory bill : pending) {
+                log.append(PUT_BILL, encodeBill(bill));
+                liveRecords++;
+            }
+        });
+        int lastIndex = billHistory.size() - 1;
+        for (Listener listener : listeners) {
+            listener.billsAdded(firstIndex, lastIndex);
+        }
+    }
+
+    /**
+     * Queues a rewrite of the log that keeps only live records.
+     */
+    public void requestCompaction() {
+        submit(this::compact);
+    }
+
+    /**
+     * Waits for queued writes, flushes the mapping to disk and releases the file.
+     */
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        submit(() -> {
+            log.close();
+            log = null;
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(IoTask task) {
+        if (writer == null) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                System.err.println("Appliance store write failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Loading runs before the writer starts; compaction runs on the writer
+
+    private void load() throws IOException {
+        log = LogFile.open(logFile);
+
+        int records = replay(appliances, billHistory);
+        liveRecords = appliances.size() + billHistory.size();
+        deadRecords = records - liveRecords;
+    }
+
+    /**
+     * Reads every committed record into {@code table} and {@code bills}, applying tombstones.
+     * Returns the number of records read.
+     */
+    private int replay(ApplianceTable table, List<BillHistory> bills) throws IOException {
+        ByteBuffer buffer = log.committed();
+        buffer.position(HEADER_SIZE);
+        BitSet deleted = new BitSet();
+        long maxId = -1;
+        int records = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get();
+                int length = buffer.getInt();
+                int payloadStart = buffer.position();
+                switch (type) {
+                    case PUT_APPLIANCE: {
+                        long id = buffer.getLong();
+                        maxId = Math.max(maxId, id);
+                        table.add(id, readString(buffer), readString(buffer), buffer.getDouble(), buffer.getDouble(),
+                                buffer.getInt(), buffer.getDouble(), buffer.getDouble(), buffer.getLong());
+                        break;
+                    }
+                    case DELETE_APPLIANCE: {
+                        // Ids only ever increase, so rows are sorted by id
+                        int row = table.rowOf(buffer.getLong());
+                        if (row >= 0) {
+                            deleted.set(row);
+                        }
+                        break;
+                    }
+                    case PUT_BILL:
+                        bills.add(new BillHistory(readString(buffer), buffer.getDouble(), buffer.getDouble(),
+                                readString(buffer)));
+                        break;
+                    default:
+                        throw new IOException("Unknown record type " + type + " in " + logFile);
+                }
+                buffer.position(payloadStart + length);
+                records++;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated record in " + logFile, e);
+        }
+        table.removeAll(deleted);
+        // Only the initial load may touch nextId; compaction replays on the writer thread
+        if (table == appliances) {
+            nextId = maxId + 1;
+        }
+        return records;
+    }
+
+    private void compact() throws IOException {
+        ApplianceTable liveAppliances = new ApplianceTable();
+        List<BillHistory> bills = new ArrayList<>();
+        replay(liveAppliances, bills);
+
+        Path compacted = logFile.resolveSibling(LOG_NAME + ".compact");
+        Files.deleteIfExists(compacted);
+        LogFile target = LogFile.open(compacted);
+        ApplianceTable.Cursor cursor = liveAppliances.cursor();
+        while (cursor.next()) {
+            target.append(PUT_APPLIANCE, encodeAppliance(cursor.id(), cursor.name(), cursor.type(), cursor.watts(),
+                    cursor.hours(), cursor.efficiency(), cursor.kwh(), cursor.monthlyCost(), cursor.addedMillis()));
+        }
+        for (BillHistory bill : bills) {
+            target.append(PUT_BILL, encodeBill(bill));
+        }
+        target.close();
+        log.close();
+
+        Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log = LogFile.open(logFile);
+        liveRecords = liveAppliances.size() + bills.size();
+        deadRecords = 0;
+    }
+
+    // Encoding
+
+    private static byte[] encodeAppliance(long id, String name, String type, double watts, double hours,
+                                          int efficiency, double kwh, double monthlyCost, long addedMillis) {
+        byte[] nameBytes = utf8(name);
+        byte[] typeBytes = utf8(type);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 2 + nameBytes.length + 2 + typeBytes.length + 8 * 2 + 4 + 8 * 2 + 8);
+        buffer.putLong(id);
+        putString(buffer, nameBytes);
+        putString(buffer, typeBytes);
+        buffer.putDouble(watts);
+        buffer.putDouble(hours);
+        buffer.putInt(efficiency);
+        buffer.putDouble(kwh);
+        buffer.putDouble(monthlyCost);
+        buffer.putLong(addedMillis);
+        return buffer.array();
+    }
+
+    private static byte[] encodeBill(BillHistory bill) {
+        byte[] month = utf8(bill.getMonth());
+        byte[] date = utf8(bill.getDate());
+        ByteBuffer buffer = ByteBuffer.allocate(2 + month.length + 8 * 2 + 2 + date.length);
+        putString(buffer, month);
+        buffer.putDouble(bill.getKwh());
+        buffer.putDouble(bill.getAmount());
+        putString(buffer, date);
+        return buffer.array();
+    }
+
+    private static byte[] encodeId(long id) {
+        return ByteBuffer.allocate(8).putLong(id).array();
+    }
+
+    // Strings longer than a length prefix can hold are cut at a character boundary, so a
+    // pathological name shortens instead of corrupting every record after it. Shared with
+    // the binary export, which uses the same 16-bit prefix
+    static byte[] utf8(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_STRING_BYTES) {
+            return bytes;
+        }
+        int end = MAX_STRING_BYTES;
+        while ((bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * A memory-mapped log file: a header holding the committed end offset, followed by
+     * {@code [type][length][payload]} records. The mapping grows by doubling.
+     */
+    private static class LogFile {
+        private final Path path;
+        private final FileChannel channel;
+        private MappedByteBuffer mapped;
+        private long end;
+
+        private LogFile(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        static LogFile open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            LogFile log = new LogFile(path, channel);
+            boolean fresh = channel.size() < HEADER_SIZE;
+            log.map(Math.max(channel.size(), INITIAL_MAP_SIZE));
+            if (fresh) {
+                log.mapped.putInt(0, MAGIC);
+                log.mapped.putInt(4, VERSION);
+                log.commitEnd(HEADER_SIZE);
+            } else {
+                if (log.mapped.getInt(0) != MAGIC || log.mapped.getInt(4) != VERSION) {
+                    channel.close();
+                    throw new IOException("Not an appliance store log: " + path);
+                }
+                log.end = log.mapped.getLong(END_OFFSET_POSITION);
+            }
+            return log;
+        }
+
+        /** A read view of the committed bytes, independent of the append position. */
+        ByteBuffer committed() {
+            ByteBuffer view = mapped.duplicate();
+            view.limit((int) end);
+            return view;
+        }
+
+        void append(byte type, byte[] payload) throws IOException {
+            int recordSize = 1 + 4 + payload.length;
+            ensureCapacity(end + recordSize);
+            mapped.position((int) end);
+            mapped.put(type);
+            mapped.putInt(payload.length);
+            mapped.put(payload);
+            commitEnd(end + recordSize);
+        }
+
+        void close() throws IOException {
+            mapped.force();
+            channel.close();
+        }
+
+        private void ensureCapacity(long required) throws IOException {
+            if (required <= mapped.capacity()) {
+                return;
+            }
+            long size = mapped.capacity();
+            while (size < required) {
+                size *= 2;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Log exceeds 2 GB: " + path);
+            }
+            map(size);
+        }
+
+        private void map(long size) throws IOException {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        private void commitEnd(long newEnd) {
+            end = newEnd;
+            mapped.putLong(END_OFFSET_POSITION, newEnd);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package storage;
+
+import billing.ApplianceData;
+import billing.BillingEngine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented appliance table: one primitive array per field and dictionary-encoded
+ * type names. Aggregating large portfolios walks a few dense arrays with a {@link Cursor}
+ * instead of chasing one object per appliance.
+ *
+ * <p>The owning thread reads and writes freely. Every change takes the write lock and bumps
+ * {@link #getVersion}, so another thread can read the live table under {@link #readLock}
+ * and tell whether it changed between two reads.
+ */
+public class ApplianceTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] typeCodes = new int[INITIAL_CAPACITY];
+    private double[] watts = new double[INITIAL_CAPACITY];
+    private double[] hours = new double[INITIAL_CAPACITY];
+    private int[] efficiency = new int[INITIAL_CAPACITY];
+    private double[] kwh = new double[INITIAL_CAPACITY];
+    private double[] monthlyCost = new double[INITIAL_CAPACITY];
+    private long[] addedMillis = new long[INITIAL_CAPACITY];
+
+    // Type dictionary
+    private final Map<String, Integer> typeCodeByName = new HashMap<>();
+    private String[] typeNames = new String[16];
+    private int typeCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long version;
+
+    public int size() {
+        return size;
+    }
+
+    public int add(long id, ApplianceData appliance) {
+        return add(id, appliance.getName(), appliance.getType(), appliance.getWatts(), appliance.getHours(),
+                appliance.getEfficiency(), appliance.getKwh(), appliance.getMonthlyCost(),
+                appliance.getAddedDate().getTime());
+    }
+
+    public int add(long id, String name, String type, double watts, double hours, int efficiency,
+                   double kwh, double monthlyCost, long addedMillis) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            if (size == ids.length) {
+                grow();
+            }
+            int row = size++;
+            ids[row] = id;
+            names[row] = name;
+            typeCodes[row] = encodeType(type);
+            this.watts[row] = watts;
+            this.hours[row] = hours;
+            this.efficiency[row] = efficiency;
+            this.kwh[row] = kwh;
+            this.monthlyCost[row] = monthlyCost;
+            this.addedMillis[row] = addedMillis;
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes a row, keeping the remaining rows in order. */
+    public void remove(int row) {
+        checkRow(row);
+        lock.writeLock().lock();
+        try {
+            version++;
+            int tail = size - row - 1;
+            System.arraycopy(ids, row + 1, ids, row, tail);
+            System.arraycopy(names, row + 1, names, row, tail);
+            System.arraycopy(typeCodes, row + 1, typeCodes, row, tail);
+            System.arraycopy(watts, row + 1, watts, row, tail);
+            System.arraycopy(hours, row + 1, hours, row, tail);
+            System.arraycopy(efficiency, row + 1, efficiency, row, tail);
+            System.arraycopy(kwh, row + 1, kwh, row, tail);
+            System.arraycopy(monthlyCost, row + 1, monthlyCost, row, tail);
+            System.arraycopy(addedMillis, row + 1, addedMillis, row, tail);
+            names[--size] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes every row whose bit is set, in a single pass. */
+    public void removeAll(BitSet rows) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            removeRows(rows);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeRows(BitSet rows) {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (rows.get(read)) {
+                continue;
+            }
+            if (write != read) {
+                ids[write] = ids[read];
+                names[write] = names[read];
+                typeCodes[write] = typeCodes[read];
+                watts[write] = watts[read];
+                hours[write] = hours[read];
+                efficiency[write] = efficiency[read];
+                kwh[write] = kwh[read];
+                monthlyCost[write] = monthlyCost[read];
+                addedMillis[write] = addedMillis[read];
+            }
+            write++;
+        }
+        Arrays.fill(names, write, size, null);
+        size = write;
+    }
+
+    /**
+     * Row holding {@code id}, or -1. Ids are assigned in increasing order, so this is a
+     * binary search.
+     */
+    public int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -1;
+    }
+
+    /** Materializes a row as an {@link ApplianceData}. */
+    public ApplianceData get(int row) {
+        checkRow(row);
+        return new ApplianceData(names[row], typeNames[typeCodes[row]], watts[row], hours[row],
+                efficiency[row], kwh[row], monthlyCost[row], new Date(addedMillis[row]));
+    }
+
+    public long getId(int row) { return ids[row]; }
+    public String getName(int row) { return names[row]; }
+    public String getType(int row) { return typeNames[typeCodes[row]]; }
+    public int getTypeCode(int row) { return typeCodes[row]; }
+    public double getWatts(int row) { return watts[row]; }
+    public double getHours(int row) { return hours[row]; }
+    public int getEfficiency(int row) { return efficiency[row]; }
+    public double getKwh(int row) { return kwh[row]; }
+    public double getMonthlyCost(int row) { return monthlyCost[row]; }
+    public long getAddedMillis(int row) { return addedMillis[row]; }
+
+    public int getTypeCount() {
+        return typeCount;
+    }
+
+    public String getTypeName(int typeCode) {
+        return typeNames[typeCode];
+    }
+
+    /** Re-bills every row in place. */
+    public void billAll(BillingEngine engine) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            engine.billAll(size, watts, hours, efficiency, kwh, monthlyCost);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Counts changes to the table; a reader on another thread compares it across reads. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Held by readers on other threads; changes wait until it is released. */
+    public Lock readLock() {
+        return lock.readLock();
+    }
+
+    public double totalKwh() {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += kwh[i];
+        }
+        return total;
+    }
+
+    public double totalMonthlyCost() {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += monthlyCost[i];
+        }
+        return total;
+    }
+
+    /** Monthly cost summed per type, indexed by type code. */
+    public double[] monthlyCostByType() {
+        double[] totals = new double[typeCount];
+        for (int i = 0; i < size; i++) {
+            totals[typeCodes[i]] += monthlyCost[i];
+        }
+        return totals;
+    }
+
+    /**
+     * A copy of the table that later changes to this one do not affect. Names and
+     * type strings are shared; only the primitive columns are copied.
+     */
+    public ApplianceTable snapshot() {
+        ApplianceTable copy = new ApplianceTable();
+        copy.size = size;
+        copy.ids = Arrays.copyOf(ids, Math.max(size, 1));
+        copy.names = Arrays.copyOf(names, Math.max(size, 1));
+        copy.typeCodes = Arrays.copyOf(typeCodes, Math.max(size, 1));
+        copy.watts = Arrays.copyOf(watts, Math.max(size, 1));
+        copy.hours = Arrays.copyOf(hours, Math.max(size, 1));
+        copy.efficiency = Arrays.copyOf(efficiency, Math.max(size, 1));
+        copy.kwh = Arrays.copyOf(kwh, Math.max(size, 1));
+        copy.monthlyCost = Arrays.copyOf(monthlyCost, Math.max(size, 1));
+        copy.addedMillis = Arrays.copyOf(addedMillis, Math.max(size, 1));
+        copy.typeCodeByName.putAll(typeCodeByName);
+        copy.typeNames = Arrays.copyOf(typeNames, typeNames.length);
+        copy.typeCount = typeCount;
+        return copy;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int encodeType(String type) {
+        Integer code = typeCodeByName.get(type);
+        if (code != null) {
+            return code;
+        }
+        if (typeCount == typeNames.length) {
+            typeNames = Arrays.copyOf(typeNames, typeCount * 2);
+        }
+        typeNames[typeCount] = type;
+        typeCodeByName.put(type, typeCount);
+        return typeCount++;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+        watts = Arrays.copyOf(watts, capacity);
+        hours = Arrays.copyOf(hours, capacity);
+        efficiency = Arrays.copyOf(efficiency, capacity);
+        kwh = Arrays.copyOf(kwh, capacity);
+        monthlyCost = Arrays.copyOf(monthlyCost, capacity);
+        addedMillis = Arrays.copyOf(addedMillis, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    /**
+     * Forward-only, reusable view over the rows. Reading fields through a cursor allocates nothing.
+     */
+    public class Cursor {
+        private int row = -1;
+
+        public boolean next() {
+            return ++row < size;
+        }
+
+        public void reset() {
+            row = -1;
+        }
+
+        public int row() { return row; }
+        public long id() { return ids[row]; }
+        public String name() { return names[row]; }
+        public int typeCode() { return typeCodes[row]; }
+        public String type() { return typeNames[typeCodes[row]]; }
+        public double watts() { return watts[row]; }
+        public double hours() { return hours[row]; }
+        public int efficiency() { return efficiency[row]; }
+        public double kwh() { return kwh[row]; }
+        public double monthlyCost() { return monthlyCost[row]; }
+        public long addedMillis() { return addedMillis[row]; }
+    }
+}
@@ -0,0 +1,178 @@
+package storage;
+
+import billing.ApplianceData;
+import billing.BillHistory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Dashboard figures kept up to date as the store changes: device count, running kWh and
+ * cost totals, devices ranked by consumption, and the latest bills for month-over-month
+ * changes. Each save or delete adjusts the totals and the ranking in O(log n) rather than
+ * rescanning the table.
+ *
+ * <p>Owned by the EDT, like the store it listens to.
+ */
+public class DashboardStats implements ApplianceStore.Listener {
+
+    public interface ChangeListener {
+        void statsChanged(DashboardStats stats);
+    }
+
+    /** A ranked device. */
+    public static class Consumer {
+        private final long id;
+        private final String name;
+        private final String type;
+        private final double kwh;
+        private final double monthlyCost;
+
+        Consumer(long id, String name, String type, double kwh, double monthlyCost) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.kwh = kwh;
+            this.monthlyCost = monthlyCost;
+        }
+
+        public String getName() { return name; }
+        public String getType() { return type; }
+        public double getKwh() { return kwh; }
+        public double getMonthlyCost() { return monthlyCost; }
+    }
+
+    // Highest consumption first; ids break ties so equal devices stay distinct
+    private static final Comparator<Consumer> BY_KWH_DESCENDING =
+            Comparator.comparingDouble((Consumer c) -> -c.kwh).thenComparingLong(c -> c.id);
+
+    private final ApplianceTable table;
+    private final List<BillHistory> bills;
+    private final List<ChangeListener> listeners = new ArrayList<>();
+
+    private final TreeSet<Consumer> ranking = new TreeSet<>(BY_KWH_DESCENDING);
+    private double totalKwh;
+    private double totalMonthlyCost;
+    private double billTotal;
+
+    public DashboardStats(ApplianceStore store) {
+        this.table = store.getApplianceTable();
+        this.bills = store.getBillHistory();
+        for (int row = 0; row < table.size(); row++) {
+            add(row);
+        }
+        for (BillHistory bill : bills) {
+            billTotal += bill.getAmount();
+        }
+        store.addListener(this);
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public int getDeviceCount() {
+        return ranking.size();
+    }
+
+    public double getTotalKwh() {
+        return totalKwh;
+    }
+
+    public double getTotalMonthlyCost() {
+        return totalMonthlyCost;
+    }
+
+    /** The device using the most energy, or {@code null} when there are none. */
+    public Consumer getPeakDevice() {
+        return ranking.isEmpty() ? null : ranking.first();
+    }
+
+    /** Up to {@code k} devices, highest consumption first. */
+    public List<Consumer> topConsumers(int k) {
+        List<Consumer> top = new ArrayList<>(k);
+        Iterator<Consumer> it = ranking.iterator();
+        while (top.size() < k && it.hasNext()) {
+            top.add(it.next());
+        }
+        return top;
+    }
+
+    public int getBillCount() {
+        return bills.size();
+    }
+
+    /** Most recent bill, or {@code null}. */
+    public BillHistory getLatestBill() {
+        return bills.isEmpty() ? null : bills.get(bills.size() - 1);
+    }
+
+    /** Average bill amount, or NaN without bills. */
+    public double getAverageBill() {
+        return bills.isEmpty() ? Double.NaN : billTotal / bills.size();
+    }
+
+    /** Percentage change in kWh from the previous bill to the latest, or NaN. */
+    public double getUsageChangePercent() {
+        if (bills.size() < 2) {
+            return Double.NaN;
+        }
+        return percentChange(bills.get(bills.size() - 2).getKwh(), bills.get(bills.size() - 1).getKwh());
+    }
+
+    /** Percentage change from the latest bill amount to the current device estimate, or NaN. */
+    public double getEstimateChangePercent() {
+        BillHistory latest = getLatestBill();
+        return latest == null ? Double.NaN : percentChange(latest.getAmount(), totalMonthlyCost);
+    }
+
+    private static double percentChange(double from, double to) {
+        return from == 0 ? Double.NaN : (to - from) * 100 / from;
+    }
+
+    @Override
+    public void appliancesAdded(int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            add(row);
+        }
+        fireChanged();
+    }
+
+    @Override
+    public void applianceRemoved(int row, long id, ApplianceData removed) {
+        ranking.remove(new Consumer(id, removed.getName(), removed.getType(), removed.getKwh(),
+                removed.getMonthlyCost()));
+        totalKwh -= removed.getKwh();
+        totalMonthlyCost -= removed.getMonthlyCost();
+        if (ranking.isEmpty()) {
+            // Clear accumulated rounding error
+            totalKwh = 0;
+            totalMonthlyCost = 0;
+        }
+        fireChanged();
+    }
+
+    @Override
+    public void billsAdded(int firstIndex, int lastIndex) {
+        for (int i = firstIndex; i <= lastIndex; i++) {
+            billTotal += bills.get(i).getAmount();
+        }
+        fireChanged();
+    }
+
+    private void add(int row) {
+        ranking.add(new Consumer(table.getId(row), table.getName(row), table.getType(row), table.getKwh(row),
+                table.getMonthlyCost(row)));
+        totalKwh += table.getKwh(row);
+        totalMonthlyCost += table.getMonthlyCost(row);
+    }
+
+    private void fireChanged() {
+        for (ChangeListener listener : listeners) {
+            listener.statsChanged(this);
+        }
+    }
+}
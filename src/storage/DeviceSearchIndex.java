@@ -0,0 +1,239 @@
+package storage;
+
+import billing.ApplianceData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search index over device names and types, keyed by appliance id.
+ *
+ * <p>Queries of three or more characters intersect trigram posting lists and then confirm
+ * the substring match; shorter queries use a word-prefix index. The index follows the
+ * store incrementally through {@link ApplianceStore.Listener}. Updates arrive on the EDT
+ * and queries may run on any thread, so both sides take a read/write lock.
+ */
+public class DeviceSearchIndex implements ApplianceStore.Listener {
+    private static final int GRAM = 3;
+
+    private final ApplianceTable table;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> trigrams = new HashMap<>();
+    private final NavigableMap<String, PostingList> words = new TreeMap<>();
+    private final Map<Long, String> textById = new HashMap<>();
+
+    public DeviceSearchIndex(ApplianceStore store) {
+        this.table = store.getApplianceTable();
+        appliancesAdded(0, table.size() - 1);
+        store.addListener(this);
+    }
+
+    /**
+     * Ids of devices whose name or type contains {@code query} (case-insensitive), sorted
+     * ascending; {@code null} when the query is blank and everything matches.
+     */
+    public long[] search(String query) {
+        String q = normalize(query).trim();
+        if (q.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if (q.length() < GRAM) {
+                return prefixMatches(q);
+            }
+            PostingList candidates = null;
+            for (int i = 0; i + GRAM <= q.length(); i++) {
+                PostingList postings = trigrams.get(q.substring(i, i + GRAM));
+                if (postings == null) {
+                    return new long[0];
+                }
+                candidates = candidates == null ? postings.copy() : candidates.retainAll(postings);
+                if (candidates.size == 0) {
+                    return new long[0];
+                }
+            }
+            // Trigrams can match out of order; confirm the substring
+            long[] result = new long[candidates.size];
+            int n = 0;
+            for (int i = 0; i < candidates.size; i++) {
+                long id = candidates.ids[i];
+                if (textById.get(id).contains(q)) {
+                    result[n++] = id;
+                }
+            }
+            return Arrays.copyOf(result, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean contains(long[] sortedIds, long id) {
+        return Arrays.binarySearch(sortedIds, id) >= 0;
+    }
+
+    @Override
+    public void appliancesAdded(int firstRow, int lastRow) {
+        lock.writeLock().lock();
+        try {
+            for (int row = firstRow; row <= lastRow; row++) {
+                index(table.getId(row), table.getName(row), table.getType(row));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void applianceRemoved(int row, long id, ApplianceData removed) {
+        lock.writeLock().lock();
+        try {
+            unindex(id, textById.get(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] prefixMatches(String prefix) {
+        Collection<PostingList> matching = words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (matching.size() == 1) {
+            PostingList postings = matching.iterator().next();
+            return Arrays.copyOf(postings.ids, postings.size);
+        }
+        int total = 0;
+        for (PostingList postings : matching) {
+            total += postings.size;
+        }
+        // Concatenate, then sort and drop ids that matched more than one word
+        long[] ids = new long[total];
+        int n = 0;
+        for (PostingList postings : matching) {
+            System.arraycopy(postings.ids, 0, ids, n, postings.size);
+            n += postings.size;
+        }
+        Arrays.sort(ids);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || ids[unique - 1] != ids[i]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, unique);
+    }
+
+    private void index(long id, String name, String type) {
+        String text = normalize(name) + '\n' + normalize(type);
+        textById.put(id, text);
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            trigrams.computeIfAbsent(text.substring(i, i + GRAM), k -> new PostingList()).add(id);
+        }
+        for (String word : words(text)) {
+            words.computeIfAbsent(word, k -> new PostingList()).add(id);
+        }
+    }
+
+    private void unindex(long id, String text) {
+        textById.remove(id);
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            PostingList postings = trigrams.get(gram);
+            if (postings != null && postings.remove(id) && postings.size == 0) {
+                trigrams.remove(gram);
+            }
+        }
+        for (String word : words(text)) {
+            PostingList postings = words.get(word);
+            if (postings != null && postings.remove(id) && postings.size == 0) {
+                words.remove(word);
+            }
+        }
+    }
+
+    private static List<String> words(String text) {
+        List<String> result = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                result.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sorted, growable list of ids. Ids are assigned in increasing order, so adds are
+     * almost always appends.
+     */
+    private static class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int pos = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                pos = -pos - 1;
+            } else if (pos < size) {
+                return; // already present
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        PostingList copy() {
+            PostingList copy = new PostingList();
+            copy.ids = Arrays.copyOf(ids, Math.max(size, 1));
+            copy.size = size;
+            return copy;
+        }
+
+        /** Keeps only ids also in {@code other}, by merging the two sorted lists in place. */
+        PostingList retainAll(PostingList other) {
+            int n = 0;
+            int j = 0;
+            for (int i = 0; i < size && j < other.size; ) {
+                if (ids[i] == other.ids[j]) {
+                    ids[n++] = ids[i++];
+                    j++;
+                } else if (ids[i] < other.ids[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            size = n;
+            return this;
+        }
+    }
+}
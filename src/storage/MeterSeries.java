@@ -0,0 +1,696 @@
+package storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Store of smart-meter readings (kWh used in the interval ending at each timestamp) with
+ * hourly, daily and monthly rollups. Readings from the meter arrive in time order and are
+ * appended; {@link #merge} inserts a batch in any order, such as an imported history.
+ *
+ * <p>Readings are packed into blocks of up to {@link #BLOCK_SIZE} points. Timestamps are
+ * stored as delta-of-deltas, so a meter reporting on a fixed interval costs one bit per
+ * timestamp. Values are XORed with the previous value and only the changed bits are kept.
+ * Every append also updates the rollups, so a query over a range of hours, days or months
+ * reads one slot per bucket and never touches the raw readings.
+ *
+ * <p>Not thread-safe; like {@link ApplianceStore} it is owned by the EDT.
+ */
+public class MeterSeries {
+    public static final int BLOCK_SIZE = 1024;
+
+    private static final int MAGIC = 0x53454D53; // "SEMS"
+    private static final int VERSION = 1;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    public enum Resolution {
+        HOUR, DAY, MONTH
+    }
+
+    public interface ReadingConsumer {
+        void reading(long timestampMillis, double kwh);
+    }
+
+    private final ZoneId zone;
+    private final List<Block> blocks = new ArrayList<>();
+    private final Rollup hourly = new Rollup();
+    private final Rollup daily = new Rollup();
+    private final Rollup monthly = new Rollup();
+    private int size;
+
+    // Calendar of the last rolled-up reading, so readings within the same day skip the zone maths
+    private long dayStart = Long.MAX_VALUE;
+    private long dayEnd = Long.MIN_VALUE;
+    private long dayKey;
+    private long monthKey;
+
+    public MeterSeries() {
+        this(ZoneId.systemDefault());
+    }
+
+    public MeterSeries(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Timestamp of the oldest reading, or {@link Long#MIN_VALUE} when empty. */
+    public long getFirstTimestamp() {
+        return blocks.isEmpty() ? Long.MIN_VALUE : blocks.get(0).firstTime;
+    }
+
+    /** Timestamp of the newest reading, or {@link Long#MIN_VALUE} when empty. */
+    public long getLastTimestamp() {
+        return blocks.isEmpty() ? Long.MIN_VALUE : blocks.get(blocks.size() - 1).lastTime;
+    }
+
+    /** Bytes used by the encoded readings, excluding rollups. */
+    public long getCompressedSize() {
+        long bits = 0;
+        for (Block block : blocks) {
+            bits += block.bits.length;
+        }
+        return (bits + 7) / 8;
+    }
+
+    /**
+     * Appends a reading. Readings must arrive in time order; one that is not newer than the
+     * last reading is ignored and {@code false} is returned. Use {@link #merge} for older ones.
+     */
+    public boolean append(long timestampMillis, double kwh) {
+        if (size > 0 && timestampMillis <= getLastTimestamp()) {
+            return false;
+        }
+        encode(blocks, timestampMillis, kwh);
+        size++;
+        rollUp(timestampMillis, kwh);
+        return true;
+    }
+
+    /**
+     * Adds a batch of readings in any order. The batch is sorted first; if it starts after the
+     * newest reading it is simply appended, otherwise the blocks from the first one it
+     * overlaps onwards are re-encoded with the batch merged in. Earlier blocks are kept as
+     * they are, and the rollups only take in the added readings.
+     *
+     * <p>A reading at a timestamp the series already holds, or repeated within the batch, is
+     * dropped; the reading that was there first is kept. Returns how many were added.
+     */
+    public int merge(Batch batch) {
+        int n = batch.sort();
+        long[] times = batch.timestamps;
+        double[] values = batch.values;
+        int added = 0;
+        if (n == 0) {
+            return 0;
+        }
+        if (size == 0 || times[0] > getLastTimestamp()) {
+            for (int i = 0; i < n; i++) {
+                if (append(times[i], values[i])) {
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        int first = firstBlockEndingAtOrAfter(times[0]);
+        List<Block> tail = new ArrayList<>();
+        long last = first > 0 ? blocks.get(first - 1).lastTime : Long.MIN_VALUE;
+        int i = 0;
+        for (int b = first; b < blocks.size(); b++) {
+            BlockReader reader = new BlockReader(blocks.get(b));
+            while (reader.next()) {
+                for (; i < n && times[i] <= reader.time; i++) {
+                    if (times[i] > last && times[i] < reader.time) {
+                        encode(tail, times[i], values[i]);
+                        rollUp(times[i], values[i]);
+                        last = times[i];
+                        added++;
+                    }
+                }
+                encode(tail, reader.time, reader.value);
+                last = reader.time;
+            }
+        }
+        for (; i < n; i++) {
+            if (times[i] > last) {
+                encode(tail, times[i], values[i]);
+                rollUp(times[i], values[i]);
+                last = times[i];
+                added++;
+            }
+        }
+        blocks.subList(first, blocks.size()).clear();
+        blocks.addAll(tail);
+        size += added;
+        return added;
+    }
+
+    // Adds a reading to the last block of target, starting a new block when it is sealed
+    private static void encode(List<Block> target, long timestampMillis, double kwh) {
+        Block block = target.isEmpty() ? null : target.get(target.size() - 1);
+        if (block == null || block.sealed) {
+            block = new Block();
+            target.add(block);
+        }
+        block.append(timestampMillis, kwh);
+        if (block.count == BLOCK_SIZE) {
+            block.seal();
+        }
+    }
+
+    /**
+     * Readings collected in any order for {@link #merge}, such as while a file is parsed on
+     * a worker thread. Not thread-safe.
+     */
+    public static class Batch {
+        private long[] timestamps = new long[1024];
+        private double[] values = new double[1024];
+        private int size;
+
+        public void add(long timestampMillis, double kwh) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestampMillis;
+            values[size] = kwh;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Stable merge sort by timestamp, so the first of two equal timestamps stays first;
+        // a batch that is already in order (the usual export) is only scanned
+        private int sort() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = timestamps[i - 1] <= timestamps[i];
+            }
+            if (sorted) {
+                return size;
+            }
+            long[] timeBuffer = new long[size];
+            double[] valueBuffer = new double[size];
+            for (int width = 1; width < size; width *= 2) {
+                for (int low = 0; low < size; low += 2 * width) {
+                    int mid = Math.min(low + width, size);
+                    int high = Math.min(low + 2 * width, size);
+                    int left = low;
+                    int right = mid;
+                    for (int k = low; k < high; k++) {
+                        boolean takeLeft = right >= high || (left < mid && timestamps[left] <= timestamps[right]);
+                        int from = takeLeft ? left++ : right++;
+                        timeBuffer[k] = timestamps[from];
+                        valueBuffer[k] = values[from];
+                    }
+                }
+                long[] times = timestamps;
+                timestamps = timeBuffer;
+                timeBuffer = times;
+                double[] kwh = values;
+                values = valueBuffer;
+                valueBuffer = kwh;
+            }
+            return size;
+        }
+    }
+
+    // Rollup queries
+
+    /** Key of the bucket holding {@code timestampMillis} at the given resolution. */
+    public long bucketOf(Resolution resolution, long timestampMillis) {
+        LocalDate date = Instant.ofEpochMilli(timestampMillis).atZone(zone).toLocalDate();
+        switch (resolution) {
+            case HOUR:
+                long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+                return hourKey(date.toEpochDay(), start, timestampMillis);
+            case DAY:
+                return date.toEpochDay();
+            default:
+                return monthKey(YearMonth.from(date));
+        }
+    }
+
+    public static long monthKey(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    public static YearMonth monthOf(long monthKey) {
+        return YearMonth.of((int) Math.floorDiv(monthKey, 12), Math.floorMod(monthKey, 12) + 1);
+    }
+
+    /**
+     * Fills {@code totals} with the kWh of {@code totals.length} consecutive buckets starting
+     * at {@code firstKey}; buckets without readings are zero. Cost is one array read per bucket.
+     */
+    public void sums(Resolution resolution, long firstKey, double[] totals) {
+        Rollup rollup = rollup(resolution);
+        for (int i = 0; i < totals.length; i++) {
+            int slot = rollup.slot(firstKey + i);
+            totals[i] = slot >= 0 ? rollup.sum[slot] : 0;
+        }
+    }
+
+    public double sum(Resolution resolution, long key) {
+        Rollup rollup = rollup(resolution);
+        int slot = rollup.slot(key);
+        return slot >= 0 ? rollup.sum[slot] : 0;
+    }
+
+    public int count(Resolution resolution, long key) {
+        Rollup rollup = rollup(resolution);
+        int slot = rollup.slot(key);
+        return slot >= 0 ? rollup.count[slot] : 0;
+    }
+
+    /** Smallest reading in the bucket, or NaN when it has none. */
+    public double min(Resolution resolution, long key) {
+        Rollup rollup = rollup(resolution);
+        int slot = rollup.slot(key);
+        return slot >= 0 && rollup.count[slot] > 0 ? rollup.min[slot] : Double.NaN;
+    }
+
+    /** Largest reading in the bucket, or NaN when it has none. */
+    public double max(Resolution resolution, long key) {
+        Rollup rollup = rollup(resolution);
+        int slot = rollup.slot(key);
+        return slot >= 0 && rollup.count[slot] > 0 ? rollup.max[slot] : Double.NaN;
+    }
+
+    /**
+     * Fills {@code kwhByHour} (24 slots) with the kWh used in each hour of the day over the
+     * month {@code monthKey}, as {@link billing.CompiledTariff#meteredCost} takes it. Reads
+     * one hourly slot per hour of the month.
+     */
+    public void hourOfDaySums(long monthKey, double[] kwhByHour) {
+        Arrays.fill(kwhByHour, 0);
+        YearMonth month = monthOf(monthKey);
+        long firstDay = month.atDay(1).toEpochDay();
+        for (long day = firstDay; day < firstDay + month.lengthOfMonth(); day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                int slot = hourly.slot(day * 24 + hour);
+                if (slot >= 0) {
+                    kwhByHour[hour] += hourly.sum[slot];
+                }
+            }
+        }
+    }
+
+    // Raw readings
+
+    /** Decodes the readings with {@code fromMillis <= timestamp < toMillis}, in time order. */
+    public void scan(long fromMillis, long toMillis, ReadingConsumer consumer) {
+        int first = firstBlockEndingAtOrAfter(fromMillis);
+        for (int b = first; b < blocks.size(); b++) {
+            Block block = blocks.get(b);
+            if (block.firstTime >= toMillis) {
+                return;
+            }
+            BlockReader reader = new BlockReader(block);
+            while (reader.next()) {
+                if (reader.time >= toMillis) {
+                    return;
+                }
+                if (reader.time >= fromMillis) {
+                    consumer.reading(reader.time, reader.value);
+                }
+            }
+        }
+    }
+
+    private int firstBlockEndingAtOrAfter(long millis) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).lastTime < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Persistence
+
+    /** Writes the series to {@code file}, replacing it atomically. */
+    public void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(zone.getId());
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                out.writeInt(block.count);
+                out.writeLong(block.firstTime);
+                out.writeLong(block.lastTime);
+                out.writeLong(block.bits.length);
+                int words = (int) ((block.bits.length + 63) >>> 6);
+                for (int i = 0; i < words; i++) {
+                    out.writeLong(block.bits.words[i]);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a series written by {@link #save}. Rollups are rebuilt from the readings. The
+     * last block is reopened sealed, so new readings start a fresh block.
+     */
+    public static MeterSeries load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a meter series file: " + file);
+            }
+            MeterSeries series = new MeterSeries(ZoneId.of(in.readUTF()));
+            int blockCount = in.readInt();
+            for (int b = 0; b < blockCount; b++) {
+                Block block = new Block();
+                block.count = in.readInt();
+                block.firstTime = in.readLong();
+                block.lastTime = in.readLong();
+                block.bits.length = in.readLong();
+                block.bits.words = new long[(int) ((block.bits.length + 63) >>> 6)];
+                for (int i = 0; i < block.bits.words.length; i++) {
+                    block.bits.words[i] = in.readLong();
+                }
+                block.sealed = true;
+                series.blocks.add(block);
+                series.size += block.count;
+
+                BlockReader reader = new BlockReader(block);
+                while (reader.next()) {
+                    series.rollUp(reader.time, reader.value);
+                }
+            }
+            return series;
+        }
+    }
+
+    // Rollups
+
+    private Rollup rollup(Resolution resolution) {
+        switch (resolution) {
+            case HOUR: return hourly;
+            case DAY: return daily;
+            default: return monthly;
+        }
+    }
+
+    private void rollUp(long timestampMillis, double kwh) {
+        if (timestampMillis < dayStart || timestampMillis >= dayEnd) {
+            LocalDate date = Instant.ofEpochMilli(timestampMillis).atZone(zone).toLocalDate();
+            dayKey = date.toEpochDay();
+            dayStart = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            dayEnd = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            monthKey = monthKey(YearMonth.from(date));
+        }
+        hourly.add(hourKey(dayKey, dayStart, timestampMillis), kwh);
+        daily.add(dayKey, kwh);
+        monthly.add(monthKey, kwh);
+    }
+
+    // Hours since local midnight; the extra hour of a DST change folds into hour 23
+    private static long hourKey(long dayKey, long dayStart, long timestampMillis) {
+        return dayKey * 24 + Math.min(23, (timestampMillis - dayStart) / MILLIS_PER_HOUR);
+    }
+
+    /** Dense per-bucket aggregates indexed by {@code key - base}. */
+    private static class Rollup {
+        private long base;
+        private int length;
+        private double[] sum = new double[0];
+        private double[] min = new double[0];
+        private double[] max = new double[0];
+        private int[] count = new int[0];
+
+        int slot(long key) {
+            long slot = key - base;
+            return length > 0 && slot >= 0 && slot < length ? (int) slot : -1;
+        }
+
+        void add(long key, double value) {
+            if (length == 0) {
+                base = key;
+            }
+            if (key < base) {
+                prepend((int) (base - key));
+            }
+            int slot = (int) (key - base);
+            if (slot >= sum.length) {
+                int capacity = Math.max(slot + 1, sum.length * 2);
+                sum = Arrays.copyOf(sum, capacity);
+                min = Arrays.copyOf(min, capacity);
+                max = Arrays.copyOf(max, capacity);
+                count = Arrays.copyOf(count, capacity);
+            }
+            if (slot >= length) {
+                length = slot + 1;
+            }
+            if (count[slot] == 0) {
+                min[slot] = value;
+                max[slot] = value;
+            } else {
+                min[slot] = Math.min(min[slot], value);
+                max[slot] = Math.max(max[slot], value);
+            }
+            sum[slot] += value;
+            count[slot]++;
+        }
+
+        // Merged readings can be older than the first bucket; shift the slots up to make room
+        private void prepend(int shift) {
+            int capacity = Math.max(length + shift, sum.length);
+            sum = shifted(sum, shift, capacity);
+            min = shifted(min, shift, capacity);
+            max = shifted(max, shift, capacity);
+            int[] shiftedCount = new int[capacity];
+            System.arraycopy(count, 0, shiftedCount, shift, length);
+            count = shiftedCount;
+            base -= shift;
+            length += shift;
+        }
+
+        private double[] shifted(double[] values, int shift, int capacity) {
+            double[] result = new double[capacity];
+            System.arraycopy(values, 0, result, shift, length);
+            return result;
+        }
+    }
+
+    // Compression
+
+    /**
+     * One run of encoded readings. The first reading is stored raw; after that each timestamp
+     * is a delta-of-delta with a variable-length prefix ({@code 0}, {@code 10}+7 bits,
+     * {@code 110}+9, {@code 1110}+12, {@code 1111}+64) and each value is the XOR with the
+     * previous one: {@code 0} if unchanged, {@code 10} plus the bits inside the previous
+     * leading/trailing-zero window, or {@code 11} plus a new window (6-bit leading zeros,
+     * 6-bit length - 1) and its bits.
+     */
+    private static class Block {
+        private final BitBuffer bits = new BitBuffer();
+        private long firstTime;
+        private long lastTime;
+        private int count;
+        private boolean sealed;
+
+        // Encoder state
+        private long previousDelta;
+        private long previousValueBits;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        void append(long time, double value) {
+            long valueBits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                firstTime = time;
+                bits.write(time, 64);
+                bits.write(valueBits, 64);
+            } else {
+                long delta = time - lastTime;
+                writeDeltaOfDelta(delta - previousDelta);
+                previousDelta = delta;
+                writeXor(valueBits ^ previousValueBits);
+            }
+            lastTime = time;
+            previousValueBits = valueBits;
+            count++;
+        }
+
+        void seal() {
+            bits.words = Arrays.copyOf(bits.words, (int) ((bits.length + 63) >>> 6));
+            sealed = true;
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                bits.write(0, 1);
+            } else if (dod >= -64 && dod <= 63) {
+                bits.write(0b10, 2);
+                bits.write(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                bits.write(0b110, 3);
+                bits.write(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                bits.write(0b1110, 4);
+                bits.write(dod, 12);
+            } else {
+                bits.write(0b1111, 4);
+                bits.write(dod, 64);
+            }
+        }
+
+        private void writeXor(long xor) {
+            if (xor == 0) {
+                bits.write(0, 1);
+                return;
+            }
+            int leading = Long.numberOfLeadingZeros(xor);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                bits.write(0b10, 2);
+                bits.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                bits.write(0b11, 2);
+                bits.write(leading, 6);
+                bits.write(meaningful - 1, 6);
+                bits.write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+    }
+
+    private static class BlockReader {
+        private final Block block;
+        private long position;
+        private int index;
+        private long delta;
+        private long valueBits;
+        private int leading;
+        private int trailing;
+
+        long time;
+        double value;
+
+        BlockReader(Block block) {
+            this.block = block;
+        }
+
+        boolean next() {
+            if (index == block.count) {
+                return false;
+            }
+            if (index == 0) {
+                time = read(64);
+                valueBits = read(64);
+            } else {
+                delta += readDeltaOfDelta();
+                time += delta;
+                if (read(1) == 1) {
+                    if (read(1) == 1) {
+                        leading = (int) read(6);
+                        trailing = 64 - leading - ((int) read(6) + 1);
+                    }
+                    valueBits ^= read(64 - leading - trailing) << trailing;
+                }
+            }
+            value = Double.longBitsToDouble(valueBits);
+            index++;
+            return true;
+        }
+
+        private long readDeltaOfDelta() {
+            if (read(1) == 0) {
+                return 0;
+            }
+            if (read(1) == 0) {
+                return signed(read(7), 7);
+            }
+            if (read(1) == 0) {
+                return signed(read(9), 9);
+            }
+            if (read(1) == 0) {
+                return signed(read(12), 12);
+            }
+            return read(64);
+        }
+
+        private long read(int n) {
+            long value = block.bits.read(position, n);
+            position += n;
+            return value;
+        }
+
+        private static long signed(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+
+    /** Growable bit string, written and read most significant bit first. */
+    private static class BitBuffer {
+        private long[] words = new long[16];
+        private long length;
+
+        void write(long value, int n) {
+            if (n < 64) {
+                value &= (1L << n) - 1;
+            }
+            int word = (int) (length >>> 6);
+            int free = 64 - (int) (length & 63);
+            if (word + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            if (n <= free) {
+                words[word] |= value << (free - n);
+            } else {
+                words[word] |= value >>> (n - free);
+                words[word + 1] |= value << (64 - (n - free));
+            }
+            length += n;
+        }
+
+        long read(long position, int n) {
+            int word = (int) (position >>> 6);
+            int available = 64 - (int) (position & 63);
+            if (n <= available) {
+                long value = words[word] >>> (available - n);
+                return n == 64 ? value : value & ((1L << n) - 1);
+            }
+            int rest = n - available;
+            long high = (words[word] & ((1L << available) - 1)) << rest;
+            return high | (words[word + 1] >>> (64 - rest));
+        }
+    }
+}